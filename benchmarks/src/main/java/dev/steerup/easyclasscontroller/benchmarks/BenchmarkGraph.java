@@ -0,0 +1,58 @@
+package dev.steerup.easyclasscontroller.benchmarks;
+
+import dev.steerup.easyclasscontroller.benchmarks.SyntheticComponents.Layout;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+
+/**
+ * The synthetic graph shared by all benchmarks, generated once per trial and shared by all benchmark threads.
+ * The context class loader is switched per iteration, because the fetchers load the classes they find through it.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkGraph {
+
+    @Param({"100", "1000", "10000", "50000"})
+    public int size;
+
+    @Param({"WIDE", "DEEP", "DIAMOND", "FILL_PROVIDE"})
+    public Shape shape;
+
+    @Param({"false", "true"})
+    public boolean processed;
+
+    @Param({"DIRECTORY", "JAR"})
+    public Layout layout;
+
+    public SyntheticComponents components;
+    public Class<?> anchor;
+
+    private ClassLoader previousClassLoader;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException, ClassNotFoundException {
+        this.components = SyntheticComponents.generate(this.shape, this.size, this.processed);
+        this.anchor = this.components.getAnchor(this.layout);
+    }
+
+    @Setup(Level.Iteration)
+    public void switchClassLoader() {
+        this.previousClassLoader = Thread.currentThread().getContextClassLoader();
+        Thread.currentThread().setContextClassLoader(this.components.getClassLoader(this.layout));
+    }
+
+    @TearDown(Level.Iteration)
+    public void restoreClassLoader() {
+        Thread.currentThread().setContextClassLoader(this.previousClassLoader);
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        this.components.close();
+    }
+}
@@ -0,0 +1,30 @@
+package dev.steerup.easyclasscontroller.benchmarks;
+
+import dev.steerup.easyclasscontroller.context.classes.ClassFetcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Classpath scanning alone, processed graphs are read from the component index.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class ClassFetcherBenchmark {
+
+    @Benchmark
+    public void fetch(BenchmarkGraph graph, Blackhole blackhole) throws IOException, ClassNotFoundException {
+        ClassFetcher.fetch(graph.anchor, SyntheticComponents.PACKAGE, blackhole::consume);
+    }
+}
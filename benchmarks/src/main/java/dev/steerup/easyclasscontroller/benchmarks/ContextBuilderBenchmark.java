@@ -0,0 +1,101 @@
+package dev.steerup.easyclasscontroller.benchmarks;
+
+import dev.steerup.easyclasscontroller.context.builder.ContextBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One phase of the {@link ContextBuilder} at a time. Every invocation gets a fresh builder
+ * which already went through all phases before the measured one.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class ContextBuilderBenchmark {
+
+    @Benchmark
+    public ContextBuilder phase(Builder builder) throws IOException, ClassNotFoundException {
+        return builder.phase.run(builder.contextBuilder);
+    }
+
+    @State(Scope.Thread)
+    public static class Builder {
+
+        @Param({"INITIALIZE_CLASSES", "INSTANTIATE_CLASSES", "LOAD_PROVIDED_ELEMENTS", "SET_PROVIDED_COMPONENTS", "SET_PROVIDED_ELEMENTS", "PERFORM_CONSTRUCT_METHODS"})
+        public Phase phase;
+
+        private ContextBuilder contextBuilder;
+
+        @Setup(Level.Invocation)
+        public void prepare(BenchmarkGraph graph) throws IOException, ClassNotFoundException {
+            this.contextBuilder = ContextBuilder.create(graph.anchor, SyntheticComponents.PACKAGE, Optional.empty());
+            for (Phase phase : Phase.values()) {
+                if (phase == this.phase) break;
+                phase.run(this.contextBuilder);
+            }
+        }
+
+        @TearDown(Level.Invocation)
+        public void discard() {
+            this.contextBuilder.discard();
+        }
+    }
+
+    public enum Phase {
+        INITIALIZE_CLASSES {
+            @Override
+            ContextBuilder run(ContextBuilder contextBuilder) throws IOException, ClassNotFoundException {
+                return contextBuilder.initializeClasses(Optional.empty());
+            }
+        },
+        INSTANTIATE_CLASSES {
+            @Override
+            ContextBuilder run(ContextBuilder contextBuilder) {
+                return contextBuilder.instantiateClasses();
+            }
+        },
+        LOAD_PROVIDED_ELEMENTS {
+            @Override
+            ContextBuilder run(ContextBuilder contextBuilder) {
+                return contextBuilder.loadProvidedElements();
+            }
+        },
+        SET_PROVIDED_COMPONENTS {
+            @Override
+            ContextBuilder run(ContextBuilder contextBuilder) {
+                return contextBuilder.setProvidedComponents();
+            }
+        },
+        SET_PROVIDED_ELEMENTS {
+            @Override
+            ContextBuilder run(ContextBuilder contextBuilder) {
+                return contextBuilder.setProvidedElements();
+            }
+        },
+        PERFORM_CONSTRUCT_METHODS {
+            @Override
+            ContextBuilder run(ContextBuilder contextBuilder) {
+                return contextBuilder.performConstructMethods();
+            }
+        };
+
+        abstract ContextBuilder run(ContextBuilder contextBuilder) throws IOException, ClassNotFoundException;
+    }
+}
@@ -0,0 +1,77 @@
+package dev.steerup.easyclasscontroller.benchmarks;
+
+import dev.steerup.easyclasscontroller.Controller;
+import dev.steerup.easyclasscontroller.context.ComponentKey;
+import dev.steerup.easyclasscontroller.context.Context;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot lookups on an initialized context, from several threads at once. All threads share one context,
+ * initialized once per trial, so only the lookups are measured.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+@Threads(4)
+public class ContextLookupBenchmark {
+
+    @Benchmark
+    public Object getComponent(Lookup lookup) {
+        return lookup.context.getComponent(lookup.componentTypes[ThreadLocalRandom.current().nextInt(lookup.componentTypes.length)]);
+    }
+
+    @Benchmark
+    public Object getComponentByKey(Lookup lookup) {
+        return lookup.context.getComponent(lookup.componentKeys[ThreadLocalRandom.current().nextInt(lookup.componentKeys.length)]);
+    }
+
+    @Benchmark
+    public List<?> getComponents(Lookup lookup) {
+        return lookup.context.getComponents(lookup.markerType);
+    }
+
+    @State(Scope.Benchmark)
+    public static class Lookup {
+
+        private Context context;
+        private Class<?>[] componentTypes;
+        private ComponentKey<?>[] componentKeys;
+        private Class<?> markerType;
+
+        @Setup(Level.Trial)
+        public void initialize(BenchmarkGraph graph) throws IOException, ClassNotFoundException {
+            final ClassLoader previousClassLoader = Thread.currentThread().getContextClassLoader();
+            Thread.currentThread().setContextClassLoader(graph.components.getClassLoader(graph.layout));
+            try {
+                this.context = Controller.initialize(graph.anchor, SyntheticComponents.PACKAGE);
+            } finally {
+                Thread.currentThread().setContextClassLoader(previousClassLoader);
+            }
+            this.componentTypes = new Class<?>[graph.size];
+            this.componentKeys = new ComponentKey<?>[graph.size];
+            for (int i = 0; i < graph.size; i++) {
+                this.componentTypes[i] = graph.components.getComponent(graph.layout, i);
+                this.componentKeys[i] = ComponentKey.of(this.componentTypes[i]);
+            }
+            this.markerType = graph.components.getMarker(graph.layout);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package dev.steerup.easyclasscontroller.benchmarks;
+
+import dev.steerup.easyclasscontroller.Controller;
+import dev.steerup.easyclasscontroller.context.Context;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The whole bootstrap, from scanning to the construct methods.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class ControllerBenchmark {
+
+    @Benchmark
+    public Context initialize(BenchmarkGraph graph) throws IOException, ClassNotFoundException {
+        return Controller.initialize(graph.anchor, SyntheticComponents.PACKAGE);
+    }
+}
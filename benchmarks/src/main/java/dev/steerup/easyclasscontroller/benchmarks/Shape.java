@@ -0,0 +1,27 @@
+package dev.steerup.easyclasscontroller.benchmarks;
+
+/**
+ * The dependency structure of a {@link SyntheticComponents} graph.
+ */
+public enum Shape {
+
+    /**
+     * Independent components without any dependencies.
+     */
+    WIDE,
+
+    /**
+     * A single chain, every component needs the next one in its constructor.
+     */
+    DEEP,
+
+    /**
+     * Every component needs the two components of the previous layer it sits between, forming stacked diamonds.
+     */
+    DIAMOND,
+
+    /**
+     * No constructor dependencies, but every component loads, provides and fills several fields.
+     */
+    FILL_PROVIDE
+}
@@ -0,0 +1,183 @@
+package dev.steerup.easyclasscontroller.benchmarks;
+
+import dev.steerup.easyclasscontroller.annotations.type.Component;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+/**
+ * Generates, compiles and packages a graph of components of a given {@link Shape} and size,
+ * once as a class directory and once as a jar, each with its own class loader.
+ */
+public class SyntheticComponents implements AutoCloseable {
+
+    public static final String PACKAGE = "synthetic";
+    public static final String ANCHOR = PACKAGE + ".Anchor";
+    public static final String MARKER = PACKAGE + ".Marker";
+
+    private static final int FILL_PROVIDE_FIELDS = 3;
+
+    private final Path directory;
+    private final URLClassLoader directoryClassLoader;
+    private final URLClassLoader jarClassLoader;
+    private final int size;
+
+    private SyntheticComponents(Path directory, int size) throws IOException {
+        this.directory = directory;
+        this.size = size;
+        this.directoryClassLoader = new URLClassLoader(new URL[]{directory.resolve("classes").toUri().toURL()}, SyntheticComponents.class.getClassLoader());
+        this.jarClassLoader = new URLClassLoader(new URL[]{directory.resolve("components.jar").toUri().toURL()}, SyntheticComponents.class.getClassLoader());
+    }
+
+    /**
+     * @param processed whether the ComponentProcessor runs, so the output contains the component index and generated factories
+     */
+    public static SyntheticComponents generate(Shape shape, int size, boolean processed) throws IOException {
+        final Path directory = Files.createTempDirectory("synthetic-components");
+        final Path sources = Files.createDirectories(directory.resolve("sources").resolve(PACKAGE));
+        final Path classes = Files.createDirectories(directory.resolve("classes"));
+
+        final List<String> arguments = new ArrayList<>(List.of(
+                "-d", classes.toString(),
+                "-classpath", libraryLocation(),
+                "-nowarn"
+        ));
+        if (processed) {
+            arguments.addAll(List.of("-processor", "dev.steerup.easyclasscontroller.processor.ComponentProcessor"));
+        } else {
+            arguments.add("-proc:none");
+        }
+
+        arguments.add(write(sources, "Anchor", "public class Anchor {\n}\n"));
+        arguments.add(write(sources, "Marker", "public interface Marker {\n}\n"));
+        for (int i = 0; i < size; i++) {
+            arguments.add(write(sources, "C" + i, source(shape, size, i)));
+        }
+
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("Synthetic components have to be compiled on a JDK.");
+        }
+        if (compiler.run(null, null, System.err, arguments.toArray(String[]::new)) != 0) {
+            throw new IllegalStateException("Synthetic components could not be compiled.");
+        }
+
+        jar(classes, directory.resolve("components.jar"));
+        return new SyntheticComponents(directory, size);
+    }
+
+    private static String source(Shape shape, int size, int index) {
+        final StringBuilder source = new StringBuilder()
+                .append("@dev.steerup.easyclasscontroller.annotations.type.Component\n")
+                .append("public class C").append(index).append(" implements Marker {\n");
+
+        final List<String> parameters = new ArrayList<>();
+        switch (shape) {
+            case DEEP:
+                if (index + 1 < size) parameters.add("C" + (index + 1) + " next");
+                break;
+            case DIAMOND:
+                if (index > 0) {
+                    int left = (index - 1) / 2;
+                    int right = index / 2;
+                    parameters.add("C" + left + " left");
+                    if (right != left && right < index) parameters.add("C" + right + " right");
+                }
+                break;
+            case FILL_PROVIDE:
+                int previous = index == 0 ? size - 1 : index - 1;
+                source.append("    @dev.steerup.easyclasscontroller.annotations.field.Load private C").append(previous).append(" previous;\n");
+                for (int field = 0; field < FILL_PROVIDE_FIELDS; field++) {
+                    source.append("    @dev.steerup.easyclasscontroller.annotations.field.Provide(\"value").append(index).append('_').append(field)
+                            .append("\") private String provided").append(field).append(" = \"").append(index).append("\";\n");
+                    source.append("    @dev.steerup.easyclasscontroller.annotations.field.Fill(\"value").append(previous).append('_').append(field)
+                            .append("\") private String filled").append(field).append(";\n");
+                }
+                break;
+            default:
+                break;
+        }
+
+        source.append("\n    public C").append(index).append('(').append(String.join(", ", parameters)).append(") {\n    }\n");
+        source.append("}\n");
+        return source.toString();
+    }
+
+    private static String write(Path sources, String className, String body) throws IOException {
+        final Path file = sources.resolve(className + ".java");
+        Files.writeString(file, "package " + PACKAGE + ";\n\n" + body);
+        return file.toString();
+    }
+
+    private static void jar(Path classes, Path jar) throws IOException {
+        try (JarOutputStream outputStream = new JarOutputStream(Files.newOutputStream(jar));
+             Stream<Path> files = Files.walk(classes)) {
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile).sorted()::iterator) {
+                outputStream.putNextEntry(new JarEntry(classes.relativize(file).toString().replace('\\', '/')));
+                Files.copy(file, outputStream);
+                outputStream.closeEntry();
+            }
+        }
+    }
+
+    private static String libraryLocation() {
+        try {
+            return Paths.get(Component.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+        } catch (URISyntaxException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    public ClassLoader getClassLoader(Layout layout) {
+        return layout == Layout.JAR ? this.jarClassLoader : this.directoryClassLoader;
+    }
+
+    public Class<?> getAnchor(Layout layout) throws ClassNotFoundException {
+        return this.getClassLoader(layout).loadClass(ANCHOR);
+    }
+
+    public Class<?> getComponent(Layout layout, int index) throws ClassNotFoundException {
+        return this.getClassLoader(layout).loadClass(PACKAGE + ".C" + index);
+    }
+
+    public Class<?> getMarker(Layout layout) throws ClassNotFoundException {
+        return this.getClassLoader(layout).loadClass(MARKER);
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.directoryClassLoader.close();
+        this.jarClassLoader.close();
+        try (Stream<Path> files = Files.walk(this.directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> {
+                try {
+                    Files.delete(file);
+                } catch (IOException exception) {
+                    throw new UncheckedIOException(exception);
+                }
+            });
+        }
+    }
+
+    public enum Layout {
+        DIRECTORY, JAR
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * @author Tobias Cremer
+ * @project EasyClassController
+ */
+
+package dev.steerup.easyclasscontroller;
+
+import dev.steerup.easyclasscontroller.context.factory.ComponentDefinition;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A package attached by {@link Controller#attachIsolated(String, Path...)}. Its classes are loaded by a class loader
+ * of their own, so they can be released again by {@link Controller#detach(AttachedPackage)}.
+ */
+public class AttachedPackage {
+
+    private final String path;
+    private final List<Path> roots;
+    private final URLClassLoader classLoader;
+
+    private List<ComponentDefinition> definitions = List.of();
+    private List<Class<?>> componentTypes = List.of();
+    private Set<String> providedNames = Set.of();
+
+    AttachedPackage(String path, List<Path> roots, ClassLoader parent) throws IOException {
+        this.path = path;
+        this.roots = roots;
+        final URL[] urls = new URL[roots.size()];
+        for (int i = 0; i < urls.length; i++) {
+            urls[i] = roots.get(i).toUri().toURL();
+        }
+        this.classLoader = new URLClassLoader("attached:" + path, urls, parent);
+    }
+
+    void wired(List<ComponentDefinition> definitions, List<ComponentDefinition> placeholderDefinitions, Set<String> providedNames) {
+        this.definitions = definitions;
+        final List<Class<?>> componentTypes = new ArrayList<>();
+        definitions.forEach(definition -> componentTypes.add(definition.getType()));
+        placeholderDefinitions.forEach(definition -> componentTypes.add(definition.getType()));
+        this.componentTypes = List.copyOf(componentTypes);
+        this.providedNames = providedNames;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public List<Path> getRoots() {
+        return roots;
+    }
+
+    public ClassLoader getClassLoader() {
+        return classLoader;
+    }
+
+    /**
+     * @return the types of all components registered by this package, lazy ones included
+     */
+    public List<Class<?>> getComponentTypes() {
+        return componentTypes;
+    }
+
+    Set<String> getProvidedNames() {
+        return providedNames;
+    }
+
+    List<ComponentDefinition> getDefinitions() {
+        return definitions;
+    }
+
+    void close() {
+        try {
+            this.classLoader.close();
+        } catch (IOException exception) {
+            exception.printStackTrace();
+        }
+    }
+}
@@ -9,21 +9,105 @@ package dev.steerup.easyclasscontroller;
 
 import dev.steerup.easyclasscontroller.context.Context;
 import dev.steerup.easyclasscontroller.context.builder.ContextBuilder;
+import dev.steerup.easyclasscontroller.context.classes.ClasspathClassFetcher;
+import dev.steerup.easyclasscontroller.context.classes.ScanCache;
+import dev.steerup.easyclasscontroller.context.classes.ScanHistory;
+import dev.steerup.easyclasscontroller.context.classes.ScanMode;
+import dev.steerup.easyclasscontroller.annotations.type.Component;
+import dev.steerup.easyclasscontroller.context.factory.ComponentDefinition;
+import dev.steerup.easyclasscontroller.context.factory.ContextFactories;
+import dev.steerup.easyclasscontroller.context.metrics.BootstrapListener;
 import dev.steerup.easyclasscontroller.custom.ClassLoader;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 import java.util.function.Consumer;
 
 public class Controller {
 
-    private static Context context;
+    private static volatile Context context;
     private static ClassLoader customClassLoader;
+    private static Executor executor;
+    private static boolean concurrentConstruct;
+    private static Duration constructTimeout;
+    private static Duration destroyTimeout;
+    private static BootstrapListener bootstrapListener = BootstrapListener.NONE;
+    private static ScanCache scanCache;
+    private static ScanMode scanMode = ScanMode.CODE_SOURCE;
+    private static ScanHistory scanHistory;
+    private static final Map<Class<?>, Set<ComponentDefinition>> definitionsByLoadedType = new ConcurrentHashMap<>();
+    private static final List<AttachedPackage> attachedPackages = new CopyOnWriteArrayList<>();
 
     public static void setLoader(ClassLoader classLoader) {
         customClassLoader = classLoader;
     }
 
+    /**
+     * Opts into instantiating independent components concurrently, e.g. on {@link java.util.concurrent.ForkJoinPool#commonPool()}.
+     * Pass null to go back to sequential instantiation.
+     */
+    public static void setExecutor(Executor componentExecutor) {
+        executor = componentExecutor;
+    }
+
+    /**
+     * Opts into running the construct methods of one priority concurrently. Failures are then thrown
+     * as one aggregated {@link InternalError} instead of being printed.
+     *
+     * @param timeout how long the construct methods of a single priority may take, null for no limit
+     */
+    public static void setConcurrentConstruct(boolean enabled, Duration timeout) {
+        concurrentConstruct = enabled;
+        constructTimeout = timeout;
+    }
+
+    /**
+     * @param timeout how long the destroy methods of a single component may take when detaching, reloading or closing, null for no limit
+     */
+    public static void setDestroyTimeout(Duration timeout) {
+        destroyTimeout = timeout;
+    }
+
+    /**
+     * Reports phase, constructor and construct method timings of every following bootstrap, e.g. to a {@link dev.steerup.easyclasscontroller.context.metrics.BootstrapReport}.
+     * Pass null to stop reporting.
+     */
+    public static void setBootstrapListener(BootstrapListener listener) {
+        bootstrapListener = listener == null ? BootstrapListener.NONE : listener;
+    }
+
+    /**
+     * Opts into caching which classes of a jar without component index are components, so restarts with the same jar skip the scan.
+     * Pass null to scan every time again.
+     *
+     * @param directory where the cache entries are stored, created if missing
+     */
+    public static void setScanCache(Path directory) {
+        scanCache = directory == null ? null : new ScanCache(directory);
+    }
+
+    /**
+     * {@link ScanMode#CLASSPATH} finds components in every jar and directory of the classpath, not only in the one of the base class.
+     */
+    public static void setScanMode(ScanMode mode) {
+        scanMode = mode == null ? ScanMode.CODE_SOURCE : mode;
+    }
+
     public static Context attach(Class<?> baseClass, String path) throws IOException, ClassNotFoundException {
         return attach(baseClass, path, preBuiltContext -> {
         });
@@ -38,30 +122,282 @@ public class Controller {
         return context;
     }
 
+    /**
+     * Attaches the components of a package found in the given jars or directories, loaded by a new class loader
+     * whose parent is the context class loader. Fields of the components already present are wired to them afterwards.
+     * The package can be detached or reloaded later on.
+     */
+    public static synchronized AttachedPackage attachIsolated(String path, Path... roots) throws IOException {
+        if (context == null) {
+            throw new InternalError("Context doesn't exist.");
+        }
+
+        final AttachedPackage attachedPackage = new AttachedPackage(path, List.of(roots), Thread.currentThread().getContextClassLoader());
+        context.beginBatch();
+        boolean committed = false;
+        try {
+            wireIsolated(attachedPackage);
+            rewire(attachedPackage.getComponentTypes());
+            context.commitBatch();
+            committed = true;
+        } finally {
+            if (!committed) {
+                context.discardBatch();
+                attachedPackage.close();
+            }
+        }
+        attachedPackages.add(attachedPackage);
+        index(attachedPackage.getDefinitions());
+        return attachedPackage;
+    }
+
+    /**
+     * Removes the components and provided elements of the package from the context, destroys them and closes its class loader,
+     * so its classes can be unloaded. Fields of the remaining components loading one of them are set to null.
+     * Components which got one of them passed to their constructor keep it.
+     */
+    public static synchronized void detach(AttachedPackage attachedPackage) {
+        if (!attachedPackages.contains(attachedPackage)) {
+            throw new IllegalArgumentException("Package " + attachedPackage.getPath() + " isn't attached.");
+        }
+
+        context.beginBatch();
+        boolean committed = false;
+        try {
+            remove(attachedPackage);
+            rewire(attachedPackage.getComponentTypes());
+            context.commitBatch();
+            committed = true;
+        } finally {
+            if (!committed) context.discardBatch();
+        }
+        attachedPackages.remove(attachedPackage);
+        unindex(attachedPackage.getDefinitions());
+        try {
+            context.destroyComponents(attachedPackage.getComponentTypes(), destroyTimeout);
+        } finally {
+            release(attachedPackage);
+        }
+    }
+
+    /**
+     * Replaces the package by a fresh copy loaded from the same roots. Other threads see either the old or the new components,
+     * the new ones only once they are constructed. Fields of the remaining components are wired to the new ones afterwards.
+     *
+     * @return the attached copy, the given package is detached
+     */
+    public static synchronized AttachedPackage reload(AttachedPackage attachedPackage) throws IOException {
+        if (!attachedPackages.contains(attachedPackage)) {
+            throw new IllegalArgumentException("Package " + attachedPackage.getPath() + " isn't attached.");
+        }
+
+        final AttachedPackage reloadedPackage = new AttachedPackage(attachedPackage.getPath(), attachedPackage.getRoots(), attachedPackage.getClassLoader().getParent());
+        context.beginBatch();
+        boolean committed = false;
+        try {
+            remove(attachedPackage);
+            wireIsolated(reloadedPackage);
+            final Set<Class<?>> replacedTypes = new HashSet<>(attachedPackage.getComponentTypes());
+            replacedTypes.addAll(reloadedPackage.getComponentTypes());
+            rewire(replacedTypes);
+            context.commitBatch();
+            committed = true;
+        } finally {
+            if (!committed) {
+                context.discardBatch();
+                reloadedPackage.close();
+            }
+        }
+        attachedPackages.set(attachedPackages.indexOf(attachedPackage), reloadedPackage);
+        unindex(attachedPackage.getDefinitions());
+        index(reloadedPackage.getDefinitions());
+        try {
+            context.destroyComponents(attachedPackage.getComponentTypes(), destroyTimeout);
+        } finally {
+            release(attachedPackage);
+        }
+        return reloadedPackage;
+    }
+
+    public static List<AttachedPackage> getAttachedPackages() {
+        return List.copyOf(attachedPackages);
+    }
+
+    /**
+     * Wires and constructs the components of the package, they are published at once afterwards.
+     */
+    private static void wireIsolated(AttachedPackage attachedPackage) throws IOException {
+        final java.lang.ClassLoader classLoader = attachedPackage.getClassLoader();
+        final List<Class<?>> classes = new ArrayList<>();
+        ClasspathClassFetcher.fetch(attachedPackage.getRoots(), classLoader, attachedPackage.getPath(), fetchedClasses -> fetchedClasses
+                .stream()
+                .filter(clazz -> clazz.isAnnotationPresent(Component.class))
+                .forEach(classes::add), bootstrapListener);
+
+        final Thread thread = Thread.currentThread();
+        final java.lang.ClassLoader contextClassLoader = thread.getContextClassLoader();
+        thread.setContextClassLoader(classLoader);
+        try {
+            final ContextBuilder contextBuilder = newContextBuilder(AttachedPackage.class, attachedPackage.getPath(), Optional.of(context));
+            build(contextBuilder, Optional.of(path -> classes), preBuiltContext -> {
+            });
+            attachedPackage.wired(contextBuilder.getDefinitions(), contextBuilder.getPlaceholderDefinitions(), contextBuilder.getProvidedNames());
+        } catch (ClassNotFoundException exception) {
+            throw new IOException(exception);
+        } finally {
+            thread.setContextClassLoader(contextClassLoader);
+        }
+    }
+
+    private static void remove(AttachedPackage attachedPackage) {
+        attachedPackage.getComponentTypes().forEach(type -> context.registerComponent(type, null));
+        attachedPackage.getProvidedNames().forEach(name -> context.provide(name, null));
+    }
+
+    /**
+     * Loads the components again of every remaining component with a field typed against one of the given component types
+     * or one of their supertypes. Runs within the batch of the caller, so the new field values are published with it.
+     * Filled fields follow the provided elements through their refillers.
+     */
+    private static void rewire(Collection<Class<?>> types) {
+        final Set<ComponentDefinition> affectedDefinitions = new LinkedHashSet<>();
+        for (Class<?> type : types) {
+            for (Class<?> supertype : supertypes(type)) {
+                affectedDefinitions.addAll(definitionsByLoadedType.getOrDefault(supertype, Set.of()));
+            }
+        }
+        affectedDefinitions.forEach(definition -> {
+            final Object component = context.peekComponent(definition.getType());
+            if (component != null) definition.loadComponents(component, context);
+        });
+    }
+
+    private static Set<Class<?>> supertypes(Class<?> type) {
+        final Set<Class<?>> supertypes = new LinkedHashSet<>();
+        final Deque<Class<?>> pending = new ArrayDeque<>(List.of(type));
+        while (!pending.isEmpty()) {
+            final Class<?> next = pending.poll();
+            if (!supertypes.add(next)) continue;
+            if (next.getSuperclass() != null) pending.add(next.getSuperclass());
+            pending.addAll(Arrays.asList(next.getInterfaces()));
+        }
+        return supertypes;
+    }
+
+    /**
+     * Indexes the definitions by the types of their loaded fields, the element types of loaded collections included.
+     */
+    private static void index(List<ComponentDefinition> indexedDefinitions) {
+        indexedDefinitions.forEach(definition -> loadedTypes(definition)
+                .forEach(type -> definitionsByLoadedType.computeIfAbsent(type, key -> ConcurrentHashMap.newKeySet()).add(definition)));
+    }
+
+    private static void unindex(List<ComponentDefinition> indexedDefinitions) {
+        indexedDefinitions.forEach(definition -> loadedTypes(definition).forEach(type -> definitionsByLoadedType.computeIfPresent(type, (key, indexed) -> {
+            indexed.remove(definition);
+            return indexed.isEmpty() ? null : indexed;
+        })));
+    }
+
+    private static List<Class<?>> loadedTypes(ComponentDefinition definition) {
+        final List<Class<?>> loadedTypes = new ArrayList<>(Arrays.asList(definition.getLoadedTypes()));
+        loadedTypes.addAll(Arrays.asList(definition.getLoadedElementTypes()));
+        return loadedTypes;
+    }
+
+    /**
+     * Drops every reference to the class loader of the package held by the controller and closes it.
+     */
+    private static void release(AttachedPackage attachedPackage) {
+        context.compact();
+        if (scanHistory != null) scanHistory.forget(attachedPackage.getClassLoader());
+        ContextFactories.forget(attachedPackage.getClassLoader());
+        attachedPackage.close();
+    }
+
     public static Context initialize(Class<?> baseClass, String path) throws IOException, ClassNotFoundException {
         return initialize(baseClass, path, context -> {
         });
     }
 
     public static Context initialize(Class<?> baseClass, String path, Consumer<Context> preBuiltContextConsumer) throws IOException, ClassNotFoundException {
+        scanHistory = new ScanHistory();
+        definitionsByLoadedType.clear();
+        attachedPackages.clear();
         return context = createContext(baseClass, path, preBuiltContextConsumer, Optional.empty());
     }
 
     private static Context createContext(Class<?> baseClass, String path, Consumer<Context> preBuiltContextConsumer, Optional<Context> optionalContext) throws IOException, ClassNotFoundException {
-        return ContextBuilder
-                .create(baseClass, path, optionalContext)
-                .initializeClasses(customClassLoader == null ? Optional.empty() : Optional.of(customClassLoader))
-                .registerExtraComponents()
-                .preBuilt(preBuiltContextConsumer)
-                .instantiateClasses()
-                .loadProvidedElements()
-                .setProvidedComponents()
-                .setProvidedElements()
-                .performConstructMethods()
-                .build();
+        ContextBuilder contextBuilder = newContextBuilder(baseClass, path, optionalContext);
+        build(contextBuilder, Optional.ofNullable(customClassLoader), preBuiltContextConsumer);
+        index(contextBuilder.getDefinitions());
+        return contextBuilder.build();
+    }
+
+    private static ContextBuilder newContextBuilder(Class<?> baseClass, String path, Optional<Context> optionalContext) {
+        return ContextBuilder.create(baseClass, path, optionalContext)
+                .listener(bootstrapListener)
+                .scanCache(Optional.ofNullable(scanCache))
+                .scanMode(scanMode)
+                .scanHistory(Optional.ofNullable(scanHistory));
+    }
+
+    /**
+     * Wires the components and runs their construct methods within the batch of the builder, then publishes them.
+     */
+    private static void build(ContextBuilder contextBuilder, Optional<ClassLoader> classLoader, Consumer<Context> preBuiltContextConsumer) throws IOException, ClassNotFoundException {
+        try {
+            contextBuilder
+                    .initializeClasses(classLoader)
+                    .registerExtraComponents()
+                    .preBuilt(preBuiltContextConsumer)
+                    .instantiateClasses(Optional.ofNullable(executor))
+                    .loadProvidedElements()
+                    .setProvidedComponents()
+                    .setProvidedElements();
+            construct(contextBuilder);
+            contextBuilder.publish();
+        } finally {
+            contextBuilder.discard();
+        }
+    }
+
+    private static void construct(ContextBuilder contextBuilder) {
+        if (concurrentConstruct) {
+            contextBuilder.performConstructMethodsConcurrently(Optional.ofNullable(constructTimeout));
+        } else {
+            contextBuilder.performConstructMethods();
+        }
+    }
+
+    /**
+     * Destroys all components of the context and closes the class loaders of the attached packages.
+     *
+     * @throws InternalError carrying every failed destroy method once all components are destroyed
+     */
+    public static synchronized void close() {
+        if (context == null) return;
+        try {
+            context.close(destroyTimeout);
+        } finally {
+            attachedPackages.forEach(AttachedPackage::close);
+            attachedPackages.clear();
+            definitionsByLoadedType.clear();
+        }
     }
 
     public static Context getContext() {
         return context;
     }
+
+    /**
+     * @return a new child of the context, e.g. for a single tenant or request. It is not kept by the controller,
+     * just drop it once done, or close it if components with destroy methods were registered in it.
+     */
+    public static Context createChildContext() {
+        if (context == null) {
+            throw new InternalError("Context doesn't exist.");
+        }
+        return context.createChild();
+    }
 }
\ No newline at end of file
@@ -12,6 +12,10 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
+/**
+ * Loads the component registered for the field type, or else the only component assignable to it, e.g. the implementation of an interface.
+ * A {@link java.util.List} or {@link java.util.Collection} field gets all components assignable to its element type.
+ */
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.FIELD)
 public @interface Load {
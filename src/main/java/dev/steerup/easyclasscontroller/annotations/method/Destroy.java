@@ -0,0 +1,21 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * @author Tobias Cremer
+ * @project EasyClassController
+ */
+
+package dev.steerup.easyclasscontroller.annotations.method;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Invoked by {@link dev.steerup.easyclasscontroller.context.Context#close()} once every component depending on this one is destroyed.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Destroy {
+}
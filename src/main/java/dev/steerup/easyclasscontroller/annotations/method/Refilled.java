@@ -0,0 +1,22 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * @author Tobias Cremer
+ * @project EasyClassController
+ */
+
+package dev.steerup.easyclasscontroller.annotations.method;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Invoked after {@link dev.steerup.easyclasscontroller.context.Context#provide(String, Object)} updated the
+ * {@link dev.steerup.easyclasscontroller.annotations.field.Fill} fields of the component at runtime.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Refilled {
+}
@@ -0,0 +1,22 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * @author Tobias Cremer
+ * @project EasyClassController
+ */
+
+package dev.steerup.easyclasscontroller.annotations.method;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Receives every event published by {@link dev.steerup.easyclasscontroller.context.Context#publishEvent(Object)}
+ * which is assignable to the single parameter of the method.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Subscribe {
+}
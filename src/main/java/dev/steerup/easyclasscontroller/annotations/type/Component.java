@@ -15,4 +15,26 @@ import java.lang.annotation.Target;
 @Target(ElementType.TYPE)
 @Retention(RetentionPolicy.RUNTIME)
 public @interface Component {
+
+    /**
+     * Lazy components are only instantiated, wired and constructed once they are looked up
+     * or injected for the first time, unless an eager component needs them in its constructor.
+     */
+    boolean lazy() default false;
+
+    /**
+     * Prototype and pooled components are created by every lookup or injection, respectively borrowed from their
+     * {@link dev.steerup.easyclasscontroller.context.ComponentPool}. They can't be passed to the constructor of an eager component.
+     */
+    Scope scope() default Scope.SINGLETON;
+
+    /**
+     * How many instances of a pooled component exist at most, borrowed or idle. Once all are borrowed,
+     * borrowing waits until one is released. Instances injected into fields stay borrowed, so count them in.
+     */
+    int poolSize() default 16;
+
+    enum Scope {
+        SINGLETON, PROTOTYPE, POOLED
+    }
 }
\ No newline at end of file
@@ -0,0 +1,261 @@
+package dev.steerup.easyclasscontroller.context;
+
+import dev.steerup.easyclasscontroller.utils.ThreadUtils;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Destroys components in reverse dependency order. A component is submitted as soon as the last component depending
+ * on it is destroyed, so independent components are destroyed in parallel. Failed and timed out components
+ * release their dependencies as well, all failures are reported together at the end. A timed out destroy method
+ * is interrupted, its dependencies are only released once it actually returned.
+ */
+class ComponentDestroyer {
+
+    private final List<Entry> entries;
+    private final Optional<Duration> timeout;
+    private final int[][] dependencies;
+    private final AtomicIntegerArray dependantCounts;
+    private final CountDownLatch remaining;
+    private final Queue<Failure> failures = new ConcurrentLinkedQueue<>();
+
+    private ExecutorService executor;
+
+    private ComponentDestroyer(List<Entry> entries, Optional<Duration> timeout) {
+        this.entries = entries;
+        this.timeout = timeout;
+        this.dependencies = new int[entries.size()][];
+        this.dependantCounts = new AtomicIntegerArray(entries.size());
+        this.remaining = new CountDownLatch(entries.size());
+    }
+
+    /**
+     * @param timeout how long the destroy methods of a single component may take
+     * @throws InternalError carrying every failure once all components are destroyed
+     */
+    static void destroy(List<Entry> entries, Optional<Duration> timeout) {
+        if (entries.isEmpty()) return;
+        new ComponentDestroyer(entries, timeout).start();
+    }
+
+    private void start() {
+        this.resolve();
+
+        this.executor = ThreadUtils.newTaskExecutor("destroy");
+        try {
+            final List<Integer> ready = new ArrayList<>();
+            for (int i = 0; i < this.entries.size(); i++) {
+                if (this.dependantCounts.get(i) == 0) ready.add(i);
+            }
+            for (int index : ready) {
+                if (this.entries.get(index).destroyer == null) this.complete(index);
+                else this.submit(index);
+            }
+            this.remaining.await();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new InternalError("Interrupted while destroying components.", exception);
+        } finally {
+            this.executor.shutdownNow();
+        }
+
+        if (!this.failures.isEmpty()) {
+            final List<Failure> failures = List.copyOf(this.failures);
+            final InternalError error = new InternalError("Components could not be destroyed: " + failures.stream()
+                    .map(failure -> failure.entry.type.getSimpleName())
+                    .collect(Collectors.joining(", ")));
+            failures.forEach(failure -> error.addSuppressed(failure.throwable));
+            throw error;
+        }
+    }
+
+    /**
+     * Links every entry to the entries it depends on, i.e. the ones assignable to the types it was wired with. Dependencies between components of the same cycle are dropped,
+     * a component depending on one of a cycle depends on all of them instead, so the components of a cycle are destroyed together
+     * once nothing outside the cycle depends on them anymore.
+     */
+    private void resolve() {
+        final Map<Class<?>, List<Integer>> indexes = new HashMap<>();
+        for (int i = 0; i < this.entries.size(); i++) {
+            for (Class<?> type : Context.assignableTypes(this.entries.get(i).type)) {
+                indexes.computeIfAbsent(type, key -> new ArrayList<>()).add(i);
+            }
+        }
+
+        for (int i = 0; i < this.entries.size(); i++) {
+            final Set<Integer> dependencies = new LinkedHashSet<>();
+            for (Class<?> dependency : this.entries.get(i).dependencies) {
+                for (int index : indexes.getOrDefault(dependency, List.of())) {
+                    if (index != i) dependencies.add(index);
+                }
+            }
+            this.dependencies[i] = dependencies.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        final int[] cycles = this.findCycles();
+        final Map<Integer, List<Integer>> members = new HashMap<>();
+        for (int i = 0; i < cycles.length; i++) {
+            members.computeIfAbsent(cycles[i], key -> new ArrayList<>()).add(i);
+        }
+        final int[] dependantCounts = new int[this.entries.size()];
+        for (int i = 0; i < this.entries.size(); i++) {
+            final Set<Integer> dependencies = new LinkedHashSet<>();
+            for (int dependency : this.dependencies[i]) {
+                if (cycles[dependency] != cycles[i]) dependencies.addAll(members.get(cycles[dependency]));
+            }
+            dependencies.forEach(dependency -> dependantCounts[dependency]++);
+            this.dependencies[i] = dependencies.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        for (int i = 0; i < dependantCounts.length; i++) {
+            this.dependantCounts.set(i, dependantCounts[i]);
+        }
+    }
+
+    /**
+     * Tarjan's algorithm, iterative so long chains don't overflow the stack.
+     *
+     * @return the strongly connected component of every entry, entries outside of cycles have one of their own
+     */
+    private int[] findCycles() {
+        final int size = this.entries.size();
+        final int[] order = new int[size];
+        final int[] lowLinks = new int[size];
+        final int[] nextDependencies = new int[size];
+        final int[] cycles = new int[size];
+        final boolean[] stacked = new boolean[size];
+        final Deque<Integer> stack = new ArrayDeque<>();
+        final Deque<Integer> path = new ArrayDeque<>();
+        Arrays.fill(order, -1);
+        int visited = 0;
+        int found = 0;
+
+        for (int root = 0; root < size; root++) {
+            if (order[root] != -1) continue;
+            order[root] = lowLinks[root] = visited++;
+            stack.push(root);
+            stacked[root] = true;
+            path.push(root);
+            while (!path.isEmpty()) {
+                final int current = path.peek();
+                if (nextDependencies[current] < this.dependencies[current].length) {
+                    final int dependency = this.dependencies[current][nextDependencies[current]++];
+                    if (order[dependency] == -1) {
+                        order[dependency] = lowLinks[dependency] = visited++;
+                        stack.push(dependency);
+                        stacked[dependency] = true;
+                        path.push(dependency);
+                    } else if (stacked[dependency]) {
+                        lowLinks[current] = Math.min(lowLinks[current], order[dependency]);
+                    }
+                    continue;
+                }
+                path.pop();
+                if (!path.isEmpty()) lowLinks[path.peek()] = Math.min(lowLinks[path.peek()], lowLinks[current]);
+                if (lowLinks[current] != order[current]) continue;
+                int member;
+                do {
+                    member = stack.pop();
+                    stacked[member] = false;
+                    cycles[member] = found;
+                } while (member != current);
+                found++;
+            }
+        }
+        return cycles;
+    }
+
+    /**
+     * Runs the destroy methods of the component. If they time out, the timeout is recorded as the failure and they are interrupted,
+     * a failure they throw afterwards is attached to it.
+     */
+    private void submit(int index) {
+        final Entry entry = this.entries.get(index);
+        final AtomicReference<TimeoutException> timeout = new AtomicReference<>();
+        final AtomicBoolean ended = new AtomicBoolean();
+        final Future<?> task = this.executor.submit(() -> {
+            try {
+                entry.destroyer.destroy(entry.instance);
+            } catch (Throwable throwable) {
+                if (ended.compareAndSet(false, true)) this.failures.add(new Failure(entry, throwable));
+                else timeout.get().addSuppressed(throwable);
+            } finally {
+                ended.set(true);
+                this.complete(index);
+            }
+        });
+        this.timeout.ifPresent(duration -> CompletableFuture.delayedExecutor(duration.toNanos(), TimeUnit.NANOSECONDS).execute(() -> {
+            timeout.set(new TimeoutException(entry.type.getSimpleName() + " didn't finish within " + duration + "."));
+            if (!ended.compareAndSet(false, true)) return;
+            this.failures.add(new Failure(entry, timeout.get()));
+            task.cancel(true);
+        }));
+    }
+
+    /**
+     * Releases the dependencies of a component. Components without destroy methods are completed in place,
+     * iteratively, so long chains of them don't overflow the stack.
+     */
+    private void complete(int index) {
+        final Deque<Integer> completed = new ArrayDeque<>();
+        completed.push(index);
+
+        while (!completed.isEmpty()) {
+            final int current = completed.pop();
+            for (int dependency : this.dependencies[current]) {
+                if (this.dependantCounts.decrementAndGet(dependency) != 0) continue;
+                if (this.entries.get(dependency).destroyer == null) completed.push(dependency);
+                else this.submit(dependency);
+            }
+            this.remaining.countDown();
+        }
+    }
+
+    static class Entry {
+
+        private final Class<?> type;
+        private final Object instance;
+        private final Class<?>[] dependencies;
+        private final Context.Destroyer destroyer;
+
+        Entry(Class<?> type, Object instance, Class<?>[] dependencies, Context.Destroyer destroyer) {
+            this.type = type;
+            this.instance = instance;
+            this.dependencies = dependencies;
+            this.destroyer = destroyer;
+        }
+    }
+
+    private static class Failure {
+
+        private final Entry entry;
+        private final Throwable throwable;
+
+        private Failure(Entry entry, Throwable throwable) {
+            this.entry = entry;
+            this.throwable = throwable;
+        }
+    }
+}
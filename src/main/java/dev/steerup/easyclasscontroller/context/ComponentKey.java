@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * @author Tobias Cremer
+ * @project EasyClassController
+ */
+
+package dev.steerup.easyclasscontroller.context;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * Looks up a component by a dense slot instead of hashing its class, see {@link Context#getComponent(ComponentKey)}.
+ * Keys are created once per class and JVM, keep them in a constant on hot paths.
+ * Registering a component creates its key, looking up a class never does, so slots are only taken by registered classes.
+ * A key only holds its class weakly and lives as long as its class or a constant holding it, its slot is reused afterwards.
+ */
+public final class ComponentKey<T> {
+
+    private static final Slots SLOTS = new Slots();
+    private static final ClassValue<Holder> KEYS = new ClassValue<>() {
+        @Override
+        protected Holder computeValue(Class<?> type) {
+            return new Holder();
+        }
+    };
+
+    private final WeakReference<Class<T>> type;
+    final int slot;
+
+    private ComponentKey(Class<T> type, int slot) {
+        this.type = new WeakReference<>(type);
+        this.slot = slot;
+    }
+
+    public static <T> ComponentKey<T> of(Class<T> type) {
+        final Holder holder = KEYS.get(type);
+        ComponentKey<?> key = holder.key;
+        if (key == null) {
+            synchronized (holder) {
+                key = holder.key;
+                if (key == null) holder.key = key = SLOTS.allocate(slot -> new ComponentKey<>(type, slot), () -> {
+                });
+            }
+        }
+        return (ComponentKey<T>) key;
+    }
+
+    /**
+     * @return the key of the class if one was created, so looking up unregistered classes doesn't create keys
+     */
+    static <T> ComponentKey<T> find(Class<T> type) {
+        return (ComponentKey<T>) KEYS.get(type).key;
+    }
+
+    /**
+     * @return the class, null once it was unloaded
+     */
+    public Class<T> getType() {
+        return this.type.get();
+    }
+
+    @Override
+    public String toString() {
+        final Class<T> type = this.getType();
+        return "ComponentKey[" + (type == null ? "unloaded" : type.getName()) + "]";
+    }
+
+    private static class Holder {
+
+        private volatile ComponentKey<?> key;
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * @author Tobias Cremer
+ * @project EasyClassController
+ */
+
+package dev.steerup.easyclasscontroller.context;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Instances of a pooled component, at most as many as the pool has slots, borrowed or idle.
+ * Borrowing and releasing claim a slot by compare and set, starting at a slot derived from the current thread,
+ * so threads mostly stay out of each other's way. A new instance is created if no idle one is left and the pool isn't exhausted,
+ * otherwise borrowing waits until an instance is released. Only that wait takes a lock.
+ */
+public class ComponentPool<T> {
+
+    private final Class<T> type;
+    private final AtomicReferenceArray<T> slots;
+    private final Supplier<T> factory;
+    private final AtomicInteger instances = new AtomicInteger();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = this.lock.newCondition();
+    private volatile int waiting;
+
+    ComponentPool(Class<T> type, int size, Supplier<T> factory) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Pool of " + type.getSimpleName() + " needs at least one slot.");
+        }
+        this.type = type;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.factory = factory;
+    }
+
+    /**
+     * @return an idle instance, a new one if there is none and the pool isn't exhausted, or else the next released one.
+     * Hand it back with {@link #release(Object)} once done.
+     * @throws InternalError if the thread is interrupted while waiting
+     */
+    public T borrow() {
+        T instance = this.claim();
+        if (instance == null) instance = this.create();
+        return instance != null ? instance : this.await();
+    }
+
+    /**
+     * Hands the instance back. An instance finding no free slot, e.g. one which wasn't borrowed, is dropped
+     * and leaves room for a new one.
+     */
+    public void release(T instance) {
+        if (!this.type.isInstance(instance)) {
+            throw new IllegalArgumentException(instance + " wasn't borrowed from the pool of " + this.type.getSimpleName() + ".");
+        }
+        final int length = this.slots.length();
+        final int start = probe(length);
+        boolean kept = false;
+        for (int i = 0; i < length && !kept; i++) {
+            final int index = (start + i) % length;
+            kept = this.slots.get(index) == null && this.slots.compareAndSet(index, null, instance);
+        }
+        if (!kept) this.instances.decrementAndGet();
+        if (this.waiting > 0) this.signal();
+    }
+
+    private T claim() {
+        final int length = this.slots.length();
+        final int start = probe(length);
+        for (int i = 0; i < length; i++) {
+            final int index = (start + i) % length;
+            final T instance = this.slots.get(index);
+            if (instance != null && this.slots.compareAndSet(index, instance, null)) return instance;
+        }
+        return null;
+    }
+
+    /**
+     * @return a new instance, or null if the pool is exhausted
+     */
+    private T create() {
+        int instances;
+        do {
+            instances = this.instances.get();
+            if (instances >= this.slots.length()) return null;
+        } while (!this.instances.compareAndSet(instances, instances + 1));
+
+        boolean created = false;
+        try {
+            final T instance = this.factory.get();
+            created = true;
+            return instance;
+        } finally {
+            if (!created) {
+                this.instances.decrementAndGet();
+                if (this.waiting > 0) this.signal();
+            }
+        }
+    }
+
+    /**
+     * Waits until an instance is released or dropped. Waiters announce themselves before checking the pool again,
+     * so a release either leaves an instance they find or sees them and signals.
+     */
+    private T await() {
+        this.lock.lock();
+        try {
+            this.waiting++;
+            try {
+                while (true) {
+                    T instance = this.claim();
+                    if (instance == null) instance = this.create();
+                    if (instance != null) return instance;
+                    this.released.await();
+                }
+            } finally {
+                this.waiting--;
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new InternalError("Interrupted while waiting for an instance of " + this.type.getSimpleName() + ".", exception);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private void signal() {
+        this.lock.lock();
+        try {
+            this.released.signal();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * @return how many instances the pool holds at most, borrowed or idle
+     */
+    public int getSize() {
+        return this.slots.length();
+    }
+
+    private static int probe(int length) {
+        return (System.identityHashCode(Thread.currentThread()) & Integer.MAX_VALUE) % length;
+    }
+}
@@ -7,50 +7,1199 @@
 
 package dev.steerup.easyclasscontroller.context;
 
+import java.lang.invoke.MethodType;
+import java.time.Duration;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
 
-public class Context {
+/**
+ * Reads never block: they work on an immutable snapshot published through a volatile field.
+ * A snapshot is a stack of layers, every write or batch adds a layer holding only what it changed, so publishing
+ * costs as much as the change itself. Layers are merged once a layer holds about as much as the one below it,
+ * which keeps the stack logarithmic in the size of the context.
+ * A batch collects all writes of the thread which opened it, which only that thread sees until {@link #commitBatch()} publishes them at once.
+ * A child context created by {@link #createChild()} only holds its own components and elements, every lookup it can't
+ * answer falls through to its parent.
+ */
+public class Context implements AutoCloseable {
+
+    private static final ClassValue<List<Class<?>>> ASSIGNABLE_TYPES = new ClassValue<>() {
+        @Override
+        protected List<Class<?>> computeValue(Class<?> type) {
+            Set<Class<?>> types = new LinkedHashSet<>();
+            collectAssignableTypes(type, types);
+            return List.copyOf(types);
+        }
+    };
+
+    private final Context parent;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile State state = new State(null, new Caches());
+    private volatile State batch;
+    private volatile boolean batchShared;
+    private final Set<Thread> sharingThreads = ConcurrentHashMap.newKeySet();
+    private final Map<Class<?>, ComponentDestroyer.Entry> destroyers = new ConcurrentHashMap<>();
+    private final Map<String, List<Refill>> refills = new ConcurrentHashMap<>();
+    private final ReentrantLock refillLock = new ReentrantLock();
+    private final EventBus eventBus = new EventBus();
+
+    public Context() {
+        this(null);
+    }
+
+    private Context(Context parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Creates a context which may override or add components and provided elements, looking up everything else in this one.
+     * Nothing is copied, creating and dropping a child costs as much as its own writes.
+     * Closing a child only destroys the components registered in it.
+     */
+    public Context createChild() {
+        return new Context(this);
+    }
 
-    private final Map<Class<?>, Object> componentMap = new HashMap<>();
-    private final Map<String, Object> providedObjectsMap = new HashMap<>();
+    /**
+     * @return the context this one was created from by {@link #createChild()}, null for a root context
+     */
+    public Context getParent() {
+        return parent;
+    }
 
+    /**
+     * Outside a batch the element is pushed to the fields filled with it right away, within a batch once it is committed.
+     */
     public void provide(String name, Object object) {
-        this.providedObjectsMap.put(name, object);
+        this.write(state -> state.provide(name, object));
+        if (!this.readsBatch()) this.refill(Set.of(name));
     }
 
     public void registerComponent(Class<?> clazz, Object instance) {
-        this.componentMap.put(clazz, instance);
+        this.write(state -> state.registerComponent(clazz, instance));
+    }
+
+    /**
+     * Registers a placeholder which creates the component on first access, exactly once.
+     */
+    public void registerLazyComponent(Class<?> clazz, LazyInitializer initializer) {
+        this.write(state -> state.registerComponent(clazz, new Lazy(clazz, initializer)));
+    }
+
+    /**
+     * Registers a placeholder which creates a new component for every lookup.
+     */
+    public void registerPrototypeComponent(Class<?> clazz, LazyInitializer initializer) {
+        this.write(state -> state.registerComponent(clazz, new Prototype(clazz, initializer)));
+    }
+
+    /**
+     * Registers a placeholder which borrows the component from a {@link ComponentPool} keeping up to the given number of idle instances.
+     */
+    public <T> void registerPooledComponent(Class<T> clazz, int poolSize, LazyInitializer initializer) {
+        final Prototype prototype = new Prototype(clazz, initializer);
+        final ComponentPool<T> pool = new ComponentPool<>(clazz, poolSize, () -> clazz.cast(prototype.get()));
+        this.write(state -> state.registerComponent(clazz, new Pooled(clazz, pool)));
     }
 
     public <T> T getProvidedElement(String name) {
-        return (T) this.providedObjectsMap.get(name);
+        ProvidedKey<T> key = ProvidedKey.find(name);
+        return key == null ? null : this.getProvidedElement(key);
+    }
+
+    /**
+     * Reads the element from an array indexed by the slot of the key, no hashing involved.
+     * The array only reaches up to the highest slot provided in this context, keys beyond it aren't provided here.
+     */
+    public <T> T getProvidedElement(ProvidedKey<T> key) {
+        State batch = this.batch;
+        Object element;
+        if (batch != null && this.readsBatch()) {
+            element = batch.providedElement(key.getName());
+        } else if (this.parent != null) {
+            element = this.state.providedElement(key.getName());
+        } else {
+            State state = this.state;
+            Object[] slots = state.providedSlots;
+            if (slots == null) slots = state.buildProvidedSlots();
+            element = key.slot < slots.length ? slots[key.slot] : null;
+        }
+        if (element == null && this.parent != null) return this.parent.getProvidedElement(key);
+        return (T) element;
     }
 
+    /**
+     * @return the first provided element which can be assigned to the given type, primitive types match their wrappers
+     */
     public <T> T getProvidedElementByType(Class<T> parameterType) {
-        return (T) this.providedObjectsMap
-                .values()
-                .stream()
-                .filter(o -> o.getClass().isAssignableFrom(parameterType))
-                .findFirst()
-                .orElse(null);
+        Class<?> type = parameterType.isPrimitive() ? MethodType.methodType(parameterType).wrap().returnType() : parameterType;
+        Object element = this.current().providedElementByType(type);
+        if (element == null && this.parent != null) return this.parent.getProvidedElementByType(parameterType);
+        return (T) element;
     }
 
+    /**
+     * @return the component, a new instance for prototype components and a borrowed one for pooled components
+     */
     public <T> T getComponent(Class<T> clazz) {
-        return clazz.cast(this.componentMap.get(clazz));
+        ComponentKey<T> key = ComponentKey.find(clazz);
+        return key == null ? null : this.getComponent(key);
     }
 
+    /**
+     * Reads the component from an array indexed by the slot of the key, no hashing involved.
+     * The array only reaches up to the highest slot registered in this context, keys beyond it aren't registered here.
+     * Child contexts look their few own components up by class instead, so they never build slot arrays as large as all keys.
+     */
+    public <T> T getComponent(ComponentKey<T> key) {
+        State batch = this.batch;
+        Object component;
+        if (batch != null && this.readsBatch()) {
+            component = batch.component(key.getType());
+        } else if (this.parent != null) {
+            component = this.state.component(key.getType());
+        } else {
+            State state = this.state;
+            Object[] slots = state.componentSlots;
+            if (slots == null) slots = state.buildComponentSlots();
+            component = key.slot < slots.length ? slots[key.slot] : null;
+        }
+        if (component == null && this.parent != null) return this.parent.getComponent(key);
+        return (T) resolve(component);
+    }
+
+    /**
+     * Looks the component up without creating or borrowing anything.
+     *
+     * @return the registered instance, the instance of a lazy component once created, or null for other placeholders
+     */
+    public <T> T peekComponent(Class<T> clazz) {
+        Object component = this.current().component(clazz);
+        if (component == null && this.parent != null) return this.parent.peekComponent(clazz);
+        if (component instanceof Lazy) return (T) ((Lazy) component).instance;
+        return component instanceof Placeholder ? null : (T) component;
+    }
+
+    /**
+     * Resolves an injection point: the component registered for the class itself, or else the only component assignable to it,
+     * e.g. the implementation of an interface.
+     *
+     * @throws IllegalArgumentException if no component is registered for the class and several are assignable to it
+     */
+    public <T> T resolveComponent(Class<T> type) {
+        T component = this.getComponent(type);
+        if (component != null) return component;
+
+        List<Class<?>> componentTypes = this.getComponentTypes(type);
+        if (componentTypes.isEmpty()) return null;
+        if (componentTypes.size() > 1) {
+            throw new IllegalArgumentException("Component of type " + type.getSimpleName() + " is ambiguous: " + componentTypes.stream()
+                    .map(Class::getSimpleName)
+                    .collect(Collectors.joining(", ")));
+        }
+        return (T) this.getComponent(componentTypes.get(0));
+    }
+
+    /**
+     * @return the classes registered for components assignable to the type, without creating lazy ones
+     */
+    public List<Class<?>> getComponentTypes(Class<?> type) {
+        List<Class<?>> componentTypes = this.current().componentTypes(type);
+        if (this.parent == null) return componentTypes;
+
+        List<Class<?>> inheritedTypes = this.parent.getComponentTypes(type);
+        if (componentTypes.isEmpty()) return inheritedTypes;
+        if (inheritedTypes.isEmpty()) return componentTypes;
+        Set<Class<?>> types = new LinkedHashSet<>(inheritedTypes);
+        types.addAll(componentTypes);
+        return List.copyOf(types);
+    }
+
+    /**
+     * @return whether a component is registered for the class, without creating it if it is lazy
+     */
+    public boolean hasComponent(Class<?> clazz) {
+        return this.current().component(clazz) != null || this.parent != null && this.parent.hasComponent(clazz);
+    }
+
+    /**
+     * @return the pool of the pooled component registered for the class, null if there is none
+     */
+    public <T> ComponentPool<T> getPool(Class<T> clazz) {
+        Object component = this.current().component(clazz);
+        if (component == null && this.parent != null) return this.parent.getPool(clazz);
+        return component instanceof Pooled ? (ComponentPool<T>) ((Pooled) component).pool : null;
+    }
+
+    /**
+     * @return an immutable list of all components assignable to the given type, cached until a component of that type is registered.
+     * Lists containing prototype or pooled components aren't cached, they hold new or borrowed instances on every call.
+     * Child contexts return the list of their parent as long as they hold no component of the type themselves.
+     */
     public <T> List<T> getComponents(Class<T> type) {
-        return ((List<T>) this.componentMap
-                .values()
-                .stream()
-                .filter(component -> type.isAssignableFrom(component.getClass()))
-                .collect(Collectors.toList()));
+        State state = this.current();
+        if (this.parent == null) return (List<T>) state.getComponents(type);
+        if (state.componentTypes(type).isEmpty()) return this.parent.getComponents(type);
+
+        List<T> components = new ArrayList<>();
+        for (Class<?> componentType : this.getComponentTypes(type)) {
+            Object component = this.getComponent(componentType);
+            if (component != null) components.add((T) component);
+        }
+        return Collections.unmodifiableList(components);
     }
 
+    /**
+     * @return an unmodifiable view, lazy components are created once their value is accessed.
+     * The view of a child context is a copy of the components of all its ancestors overridden by its own.
+     */
     public Map<Class<?>, Object> getComponents() {
-        return componentMap;
+        return new ResolvingMap(this.flatComponents());
+    }
+
+    private Map<Class<?>, Object> flatComponents() {
+        Map<Class<?>, Object> components = this.current().flatComponents();
+        if (this.parent == null) return components;
+
+        Map<Class<?>, Object> inheritedComponents = this.parent.flatComponents();
+        if (components.isEmpty()) return inheritedComponents;
+        Map<Class<?>, Object> merged = new LinkedHashMap<>(inheritedComponents);
+        merged.putAll(components);
+        return merged;
+    }
+
+    /**
+     * @return the names of the elements provided within the batch opened by the current thread
+     */
+    public Set<String> getProvidedNamesOfBatch() {
+        if (!this.isBatchOpen()) {
+            throw new IllegalStateException("The current thread has no open batch.");
+        }
+        Map<String, Object> elements = new HashMap<>();
+        for (State layer = this.batch; layer != this.state; layer = layer.parent) {
+            layer.providedObjectsMap.forEach(elements::putIfAbsent);
+        }
+        Set<String> names = new HashSet<>();
+        elements.forEach((name, element) -> {
+            if (element != State.REMOVED) names.add(name);
+        });
+        return names;
+    }
+
+    /**
+     * Merges all layers of the published snapshot into one, so nothing refers to removed components or their types anymore.
+     */
+    public void compact() {
+        this.writeLock.lock();
+        try {
+            State state = this.state;
+            while (state.parent != null) {
+                state = State.merge(state.parent, state);
+            }
+            state.dropStaleCaches();
+            this.state = state;
+        } finally {
+            this.writeLock.unlock();
+        }
+    }
+
+    /**
+     * Lets {@link #close()} destroy the component once the components depending on it are destroyed.
+     * Components without destroy methods are registered as well, with a null destroyer, so the order passes through them.
+     *
+     * @param dependencies the types of the components it was wired with
+     */
+    public void registerDestroyer(Class<?> clazz, Object instance, Class<?>[] dependencies, Destroyer destroyer) {
+        this.destroyers.put(clazz, new ComponentDestroyer.Entry(clazz, instance, dependencies, destroyer));
+    }
+
+    /**
+     * Lets {@link #provide(String, Object)} push new elements of the name to the component at runtime.
+     * Refills are serialized per context, the refiller always gets the latest element.
+     * Fields read by other threads than the providing one have to be volatile to see the new element.
+     *
+     * @param clazz the component the refiller belongs to, refillers are dropped once it is destroyed
+     */
+    public void registerRefiller(String name, Class<?> clazz, Refiller refiller) {
+        this.refills.computeIfAbsent(name, key -> new CopyOnWriteArrayList<>()).add(new Refill(clazz, refiller));
+    }
+
+    /**
+     * Lets the subscriber receive every published event assignable to the event type.
+     *
+     * @param clazz the component the subscriber belongs to, subscribers are dropped once it is destroyed
+     */
+    public void registerSubscriber(Class<?> eventType, Class<?> clazz, Subscriber subscriber) {
+        this.eventBus.subscribe(eventType, clazz, subscriber);
+    }
+
+    /**
+     * Passes the event to its subscribers on the current thread, in a child context to the subscribers of its parent afterwards. Failing subscribers don't keep the others from receiving it.
+     */
+    public void publishEvent(Object event) {
+        this.eventBus.publish(event);
+        if (this.parent != null) this.parent.publishEvent(event);
+    }
+
+    /**
+     * Queues the event for a single dispatching thread, which passes events to their subscribers in batches and in order.
+     *
+     * Events of a child context are queued for the subscribers of the child and of its parent separately.
+     *
+     * @return false if a queue is full or the context is closed, the event is dropped by that queue then
+     */
+    public boolean publishEventAsync(Object event) {
+        boolean queued = !this.eventBus.hasSubscribers() || this.eventBus.publishAsync(event);
+        if (this.parent != null) queued &= this.parent.publishEventAsync(event);
+        return queued;
+    }
+
+    /**
+     * Destroys all registered components without a time limit.
+     */
+    @Override
+    public void close() {
+        this.close(null);
+    }
+
+    /**
+     * Destroys all registered components in reverse dependency order, components not depending on each other in parallel.
+     *
+     * @param timeout how long the destroy methods of a single component may take, null for no limit
+     * @throws InternalError carrying every failure once all components are destroyed
+     */
+    public void close(Duration timeout) {
+        this.eventBus.close();
+        this.destroyComponents(List.copyOf(this.destroyers.keySet()), timeout);
+    }
+
+    /**
+     * Destroys the given components like {@link #close(Duration)}, e.g. once they were removed from the context.
+     */
+    public void destroyComponents(Collection<Class<?>> types, Duration timeout) {
+        this.refills.values().forEach(refills -> refills.removeIf(refill -> types.contains(refill.type)));
+        this.eventBus.unsubscribe(types);
+        final List<ComponentDestroyer.Entry> entries = new ArrayList<>();
+        types.forEach(type -> {
+            ComponentDestroyer.Entry entry = this.destroyers.remove(type);
+            if (entry != null) entries.add(entry);
+        });
+        ComponentDestroyer.destroy(entries, Optional.ofNullable(timeout));
+    }
+
+    /**
+     * Opens a batch for the current thread. Other threads keep reading the last published snapshot
+     * and their writes wait until the batch is committed or discarded. Batches may be nested,
+     * a nested batch writes to its own layer which is merged into the enclosing batch on commit and dropped on discard.
+     */
+    public void beginBatch() {
+        if (this.isSharingThread()) {
+            throw new IllegalStateException("Tasks sharing a batch can't open another one.");
+        }
+        this.writeLock.lock();
+        this.batch = new State(this.writeLock.getHoldCount() == 1 ? this.state : this.batch);
+    }
+
+    /**
+     * Publishes all writes of the batch opened by the current thread at once.
+     */
+    public void commitBatch() {
+        this.endBatch(true);
+    }
+
+    /**
+     * Drops all writes of the batch opened by the current thread.
+     */
+    public void discardBatch() {
+        this.endBatch(false);
+    }
+
+    public boolean isBatchOpen() {
+        return this.writeLock.isHeldByCurrentThread();
+    }
+
+    /**
+     * Runs the tasks like {@link ExecutorService#invokeAll(Collection)} and lets them share the batch opened by the current thread,
+     * e.g. construct methods running concurrently before the components are published. The tasks read the batch and write to it,
+     * every write adds a layer on top of the batch while it is shared, so they never see a layer being written.
+     * Without an open batch the tasks just run.
+     *
+     * @param timeout how long the tasks may take, unfinished ones are cancelled and can't write to the batch anymore
+     */
+    public <T> List<Future<T>> invokeSharingBatch(ExecutorService executor, List<Callable<T>> tasks, Optional<Duration> timeout) throws InterruptedException {
+        if (!this.isBatchOpen()) return invokeAll(executor, tasks, timeout);
+
+        final List<Callable<T>> sharingTasks = new ArrayList<>(tasks.size());
+        for (Callable<T> task : tasks) {
+            sharingTasks.add(() -> {
+                final Thread thread = Thread.currentThread();
+                this.sharingThreads.add(thread);
+                try {
+                    return task.call();
+                } finally {
+                    this.sharingThreads.remove(thread);
+                }
+            });
+        }
+        final State base = this.batch.parent;
+        this.batchShared = true;
+        try {
+            return invokeAll(executor, sharingTasks, timeout);
+        } finally {
+            synchronized (this.sharingThreads) {
+                this.batchShared = false;
+                State batch = this.batch;
+                while (batch.parent != base) {
+                    batch = State.merge(batch.parent, batch);
+                }
+                this.batch = batch;
+            }
+        }
+    }
+
+    private static <T> List<Future<T>> invokeAll(ExecutorService executor, List<Callable<T>> tasks, Optional<Duration> timeout) throws InterruptedException {
+        return timeout.isPresent()
+                ? executor.invokeAll(tasks, timeout.get().toNanos(), TimeUnit.NANOSECONDS)
+                : executor.invokeAll(tasks);
+    }
+
+    /**
+     * @return whether the current thread reads the open batch instead of the published snapshot
+     */
+    private boolean readsBatch() {
+        return this.writeLock.isHeldByCurrentThread() || this.isSharingThread();
+    }
+
+    private boolean isSharingThread() {
+        return this.batchShared && this.sharingThreads.contains(Thread.currentThread());
+    }
+
+    private void endBatch(boolean commit) {
+        if (!this.writeLock.isHeldByCurrentThread()) {
+            throw new IllegalStateException("The current thread has no open batch.");
+        }
+        Set<String> providedNames = Set.of();
+        if (this.writeLock.getHoldCount() == 1) {
+            if (commit) {
+                this.publish(this.batch);
+                providedNames = this.batch.providedObjectsMap.keySet();
+            }
+            this.batch = null;
+        } else {
+            this.batch = commit ? State.merge(this.batch.parent, this.batch) : this.batch.parent;
+        }
+        this.writeLock.unlock();
+        if (!providedNames.isEmpty()) this.refill(providedNames);
+    }
+
+    private void refill(Set<String> names) {
+        if (this.refills.isEmpty()) return;
+        this.refillLock.lock();
+        try {
+            for (String name : names) {
+                List<Refill> refills = this.refills.get(name);
+                if (refills == null) continue;
+                Object element = this.state.providedElement(name);
+                for (Refill refill : refills) {
+                    try {
+                        refill.refiller.refill(element);
+                    } catch (Throwable throwable) {
+                        throwable.printStackTrace();
+                    }
+                }
+            }
+        } finally {
+            this.refillLock.unlock();
+        }
+    }
+
+    private State current() {
+        State batch = this.batch;
+        if (batch != null && this.readsBatch()) {
+            return batch;
+        }
+        return this.state;
+    }
+
+    private void write(Consumer<State> mutation) {
+        if (this.isSharingThread()) {
+            this.writeShared(mutation);
+            return;
+        }
+        this.writeLock.lock();
+        try {
+            if (this.batchShared) {
+                this.writeShared(mutation);
+            } else if (this.batch != null) {
+                mutation.accept(this.batch);
+            } else {
+                State state = new State(this.state);
+                mutation.accept(state);
+                this.publish(state);
+            }
+        } finally {
+            this.writeLock.unlock();
+        }
+    }
+
+    private void writeShared(Consumer<State> mutation) {
+        synchronized (this.sharingThreads) {
+            if (!this.batchShared) {
+                throw new IllegalStateException("The batch isn't shared anymore.");
+            }
+            final State layer = new State(this.batch);
+            mutation.accept(layer);
+            this.batch = layer;
+        }
+    }
+
+    /**
+     * Publishes the layer written on top of the current snapshot. The slot arrays of the current snapshot are copied
+     * and patched with the written entries instead of being rebuilt from all layers.
+     */
+    private void publish(State written) {
+        final State previous = this.state;
+        final State published = State.compact(written);
+        if (published != previous) published.carrySlots(previous, written);
+        this.state = published;
+    }
+
+    private static Object resolve(Object component) {
+        return component instanceof Placeholder ? ((Placeholder) component).get() : component;
+    }
+
+    private static Class<?> typeOf(Object component) {
+        return component instanceof Placeholder ? ((Placeholder) component).type : component.getClass();
+    }
+
+    /**
+     * @return the class itself, its superclasses and all interfaces it implements
+     */
+    static List<Class<?>> assignableTypes(Class<?> type) {
+        return ASSIGNABLE_TYPES.get(type);
+    }
+
+    private static void collectAssignableTypes(Class<?> type, Set<Class<?>> types) {
+        if (type == null || !types.add(type)) return;
+        collectAssignableTypes(type.getSuperclass(), types);
+        for (Class<?> interfaceType : type.getInterfaces()) {
+            collectAssignableTypes(interfaceType, types);
+        }
+    }
+
+    /**
+     * One layer of a snapshot, never changed once published. Removals are recorded as {@link #REMOVED},
+     * so a lookup stops at the topmost layer knowing the key. The type indexes only ever grow,
+     * entries whose current value no longer matches are skipped when read and dropped when the layers are merged.
+     * The cached lists are shared by all snapshots of a context and tagged with the write which last touched their type,
+     * a snapshot uses a list only if that is the same write it sees, so nothing is copied when publishing.
+     */
+    private static class State {
+
+        private static final Object REMOVED = new Object();
+        private static final int MAX_DEPTH = 16;
+
+        private final State parent;
+        private final State[] layers;
+        private final Map<Class<?>, Object> componentMap = new HashMap<>();
+        private final Map<String, Object> providedObjectsMap = new HashMap<>();
+        private final Set<ProvidedKey<?>> providedKeys = new HashSet<>();
+        private final Map<Class<?>, Set<Class<?>>> componentTypeIndex = new HashMap<>();
+        private final Map<Class<?>, Set<String>> providedTypeIndex = new HashMap<>();
+        private final Map<Class<?>, Long> touchedTypes = new HashMap<>();
+        private final Caches caches;
+        private volatile Map<Class<?>, Object> flatComponents;
+        private volatile Object[] componentSlots;
+        private volatile Object[] providedSlots;
+
+        private State(State parent) {
+            this(parent, parent.caches);
+            this.flatComponents = parent.flatComponents;
+        }
+
+        private State(State parent, Caches caches) {
+            this.parent = parent;
+            this.caches = caches;
+            if (parent == null) {
+                this.layers = new State[]{this};
+            } else {
+                this.layers = Arrays.copyOf(parent.layers, parent.layers.length + 1);
+                this.layers[parent.layers.length] = this;
+            }
+        }
+
+        /**
+         * Merges the layer into the ones below while they aren't more than twice as large, so every entry is copied
+         * a logarithmic number of times over the lifetime of the context.
+         */
+        private static State compact(State state) {
+            if (state.parent != null && state.size() == 0) return state.parent;
+            while (state.parent != null && (state.layers.length > MAX_DEPTH || state.parent.size() <= 2 * state.size())) {
+                state = merge(state.parent, state);
+            }
+            return state;
+        }
+
+        private static State merge(State lower, State upper) {
+            final State merged = new State(lower.parent, lower.caches);
+            merged.flatComponents = upper.flatComponents;
+            merged.touchedTypes.putAll(lower.touchedTypes);
+            merged.touchedTypes.putAll(upper.touchedTypes);
+            merged.componentMap.putAll(lower.componentMap);
+            merged.componentMap.putAll(upper.componentMap);
+            merged.providedObjectsMap.putAll(lower.providedObjectsMap);
+            merged.providedObjectsMap.putAll(upper.providedObjectsMap);
+            merged.providedKeys.addAll(lower.providedKeys);
+            merged.providedKeys.addAll(upper.providedKeys);
+            lower.componentTypeIndex.forEach((type, keys) -> merged.componentTypeIndex.put(type, new LinkedHashSet<>(keys)));
+            upper.componentTypeIndex.forEach((type, keys) -> merged.componentTypeIndex.computeIfAbsent(type, key -> new LinkedHashSet<>()).addAll(keys));
+            lower.providedTypeIndex.forEach((type, names) -> merged.providedTypeIndex.put(type, new LinkedHashSet<>(names)));
+            upper.providedTypeIndex.forEach((type, names) -> merged.providedTypeIndex.computeIfAbsent(type, key -> new LinkedHashSet<>()).addAll(names));
+
+            if (merged.parent == null) {
+                merged.componentMap.values().removeIf(value -> value == REMOVED);
+                merged.providedObjectsMap.values().removeIf(value -> value == REMOVED);
+                merged.providedKeys.removeIf(key -> !merged.providedObjectsMap.containsKey(key.getName()));
+                merged.componentTypeIndex.forEach((type, keys) -> keys.removeIf(key -> !matches(type, merged.component(key))));
+                merged.componentTypeIndex.values().removeIf(Set::isEmpty);
+                merged.providedTypeIndex.forEach((type, names) -> names.removeIf(name -> !type.isInstance(merged.providedElement(name))));
+                merged.providedTypeIndex.values().removeIf(Set::isEmpty);
+            }
+            return merged;
+        }
+
+        private int size() {
+            return this.componentMap.size() + this.providedObjectsMap.size();
+        }
+
+        /**
+         * Drops the cached lists this snapshot can't use, which may still refer to removed components.
+         */
+        private void dropStaleCaches() {
+            this.caches.componentsByType.entrySet().removeIf(entry -> entry.getValue().write != this.lastWrite(entry.getKey()));
+            this.caches.componentTypes.entrySet().removeIf(entry -> entry.getValue().write != this.lastWrite(entry.getKey()));
+        }
+
+        /**
+         * @return the write which last touched the type in this snapshot, 0 if none did
+         */
+        private long lastWrite(Class<?> type) {
+            for (int i = this.layers.length - 1; i >= 0; i--) {
+                final Long write = this.layers[i].touchedTypes.get(type);
+                if (write != null) return write;
+            }
+            return 0;
+        }
+
+        private <V> V cached(Map<Class<?>, Cached<V>> cache, Class<?> type) {
+            final Cached<V> cached = cache.get(type);
+            return cached != null && cached.write == this.lastWrite(type) ? cached.value : null;
+        }
+
+        /**
+         * Keeps the newer list if a snapshot written earlier caches the type concurrently.
+         */
+        private <V> void cache(Map<Class<?>, Cached<V>> cache, Class<?> type, V value) {
+            cache.merge(type, new Cached<>(this.lastWrite(type), value), (current, computed) -> current.write > computed.write ? current : computed);
+        }
+
+        /**
+         * Takes over the slot arrays of the previous snapshot, extended if needed and patched with the written entries.
+         *
+         * @param written the layer which was put on top of the previous snapshot to get this one
+         */
+        private void carrySlots(State previous, State written) {
+            final Object[] componentSlots = previous.componentSlots;
+            if (componentSlots != null) {
+                this.componentSlots = written.componentMap.isEmpty() ? componentSlots : patch(componentSlots, written.componentMap, clazz -> ComponentKey.of(clazz).slot);
+            }
+            final Object[] providedSlots = previous.providedSlots;
+            if (providedSlots != null) {
+                this.providedSlots = written.providedObjectsMap.isEmpty() ? providedSlots : patch(providedSlots, written.providedObjectsMap, name -> ProvidedKey.of(name).slot);
+            }
+        }
+
+        private static <K> Object[] patch(Object[] slots, Map<K, Object> entries, ToIntFunction<K> slotOf) {
+            int length = slots.length;
+            final Map<Integer, Object> patches = new HashMap<>();
+            for (Map.Entry<K, Object> entry : entries.entrySet()) {
+                final int slot = slotOf.applyAsInt(entry.getKey());
+                patches.put(slot, entry.getValue() == REMOVED ? null : entry.getValue());
+                length = Math.max(length, slot + 1);
+            }
+            final Object[] patched = Arrays.copyOf(slots, length);
+            patches.forEach((slot, value) -> patched[slot] = value);
+            return patched;
+        }
+
+        private Object component(Class<?> clazz) {
+            for (int i = this.layers.length - 1; i >= 0; i--) {
+                Object component = this.layers[i].componentMap.get(clazz);
+                if (component != null) return component == REMOVED ? null : component;
+            }
+            return null;
+        }
+
+        private Object providedElement(String name) {
+            for (int i = this.layers.length - 1; i >= 0; i--) {
+                Object element = this.layers[i].providedObjectsMap.get(name);
+                if (element != null) return element == REMOVED ? null : element;
+            }
+            return null;
+        }
+
+        private Object providedElementByType(Class<?> type) {
+            for (State layer : this.layers) {
+                Set<String> names = layer.providedTypeIndex.get(type);
+                if (names == null) continue;
+                for (String name : names) {
+                    Object element = this.providedElement(name);
+                    if (type.isInstance(element)) return element;
+                }
+            }
+            return null;
+        }
+
+        private List<?> getComponents(Class<?> type) {
+            List<?> components = this.cached(this.caches.componentsByType, type);
+            if (components == null) {
+                List<Class<?>> keys = this.componentTypes(type);
+                List<Object> resolvedComponents = new ArrayList<>(keys.size());
+                boolean shared = true;
+                for (Class<?> key : keys) {
+                    Object component = this.component(key);
+                    resolvedComponents.add(resolve(component));
+                    shared &= !(component instanceof Prototype || component instanceof Pooled);
+                }
+                components = Collections.unmodifiableList(resolvedComponents);
+                if (shared) this.cache(this.caches.componentsByType, type, components);
+            }
+            return components;
+        }
+
+        /**
+         * The classes registered for components assignable to the type, computed once per type from the type index
+         * and cached until a component of that type is registered.
+         */
+        private List<Class<?>> componentTypes(Class<?> type) {
+            List<Class<?>> componentTypes = this.cached(this.caches.componentTypes, type);
+            if (componentTypes == null) {
+                Set<Class<?>> keys = new LinkedHashSet<>();
+                for (State layer : this.layers) {
+                    Set<Class<?>> layerKeys = layer.componentTypeIndex.get(type);
+                    if (layerKeys != null) keys.addAll(layerKeys);
+                }
+                keys.removeIf(key -> !matches(type, this.component(key)));
+                componentTypes = List.copyOf(keys);
+                this.cache(this.caches.componentTypes, type, componentTypes);
+            }
+            return componentTypes;
+        }
+
+        private Map<Class<?>, Object> flatComponents() {
+            Map<Class<?>, Object> flatComponents = this.flatComponents;
+            if (flatComponents == null) {
+                flatComponents = new HashMap<>();
+                for (State layer : this.layers) {
+                    flatComponents.putAll(layer.componentMap);
+                }
+                flatComponents.values().removeIf(value -> value == REMOVED);
+                this.flatComponents = flatComponents = Collections.unmodifiableMap(flatComponents);
+            }
+            return flatComponents;
+        }
+
+        /**
+         * Flattens the layers into an array indexed by the slots of the component keys, just long enough for the
+         * components of this snapshot. Only called on published layers, which never change afterwards.
+         */
+        private Object[] buildComponentSlots() {
+            final Map<Class<?>, Object> components = this.flatComponents();
+            int length = 0;
+            for (Class<?> clazz : components.keySet()) {
+                length = Math.max(length, ComponentKey.of(clazz).slot + 1);
+            }
+            final Object[] slots = new Object[length];
+            components.forEach((clazz, component) -> slots[ComponentKey.of(clazz).slot] = component);
+            return this.componentSlots = slots;
+        }
+
+        private Object[] buildProvidedSlots() {
+            final Map<String, Object> elements = new HashMap<>();
+            for (State layer : this.layers) {
+                elements.putAll(layer.providedObjectsMap);
+            }
+            elements.values().removeIf(element -> element == REMOVED);
+            int length = 0;
+            for (String name : elements.keySet()) {
+                length = Math.max(length, ProvidedKey.of(name).slot + 1);
+            }
+            final Object[] slots = new Object[length];
+            elements.forEach((name, element) -> slots[ProvidedKey.of(name).slot] = element);
+            return this.providedSlots = slots;
+        }
+
+        /**
+         * Keeps the key of the name alive while the element is provided, so lookups by name find it.
+         */
+        private void provide(String name, Object object) {
+            this.providedKeys.add(ProvidedKey.of(name));
+            this.providedObjectsMap.put(name, object == null ? REMOVED : object);
+            if (object != null) {
+                ASSIGNABLE_TYPES.get(object.getClass()).forEach(type -> this.providedTypeIndex.computeIfAbsent(type, key -> new LinkedHashSet<>()).add(name));
+            }
+        }
+
+        private void registerComponent(Class<?> clazz, Object instance) {
+            Object previous = this.component(clazz);
+            ComponentKey.of(clazz);
+            this.componentMap.put(clazz, instance == null ? REMOVED : instance);
+            this.flatComponents = null;
+            if (previous != null) {
+                ASSIGNABLE_TYPES.get(typeOf(previous)).forEach(this::touch);
+            }
+            if (instance != null) {
+                ASSIGNABLE_TYPES.get(typeOf(instance)).forEach(type -> {
+                    this.componentTypeIndex.computeIfAbsent(type, key -> new LinkedHashSet<>()).add(clazz);
+                    this.touch(type);
+                });
+            }
+        }
+
+        /**
+         * Every touch counts as a new write, so lists cached earlier within the same batch aren't used afterwards.
+         */
+        private void touch(Class<?> type) {
+            this.touchedTypes.put(type, this.caches.writes.incrementAndGet());
+        }
+
+        private static boolean matches(Class<?> type, Object component) {
+            return component != null && type.isAssignableFrom(typeOf(component));
+        }
+    }
+
+    /**
+     * The cached lists of a context, shared by all of its snapshots.
+     */
+    private static class Caches {
+
+        private final AtomicLong writes = new AtomicLong();
+        private final Map<Class<?>, Cached<List<?>>> componentsByType = new ConcurrentHashMap<>();
+        private final Map<Class<?>, Cached<List<Class<?>>>> componentTypes = new ConcurrentHashMap<>();
+    }
+
+    private static class Cached<V> {
+
+        private final long write;
+        private final V value;
+
+        private Cached(long write, V value) {
+            this.write = write;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Creates a lazy, prototype or pooled component. Split in three steps, so the thread initializing the component
+     * already gets the instance if the component is requested again while its fields are injected.
+     */
+    public interface LazyInitializer {
+
+        Object instantiate();
+
+        /**
+         * Injects the fields of the instance. Must not write to the context, threads waiting for the component may hold its write lock.
+         */
+        void initialize(Object instance);
+
+        /**
+         * Runs once the component is published, may write to the context, e.g. provide elements or run construct methods.
+         * Completions of components created while another one is initialized run after the outermost component is published.
+         */
+        void complete(Object instance);
+    }
+
+    /**
+     * The lazy components the current thread is initializing and the completions waiting for the outermost one to be published.
+     */
+    private static class Initializations {
+
+        private static final ThreadLocal<Initializations> CURRENT = ThreadLocal.withInitial(Initializations::new);
+
+        private final Deque<Runnable> completions = new ArrayDeque<>();
+        private int depth;
+
+        private void complete(LazyInitializer initializer, Object instance) {
+            this.completions.add(() -> initializer.complete(instance));
+            if (this.depth > 0) return;
+            Runnable completion;
+            while ((completion = this.completions.poll()) != null) {
+                completion.run();
+            }
+        }
+    }
+
+    /**
+     * Stored in place of a component which is created on lookup.
+     */
+    private abstract static class Placeholder {
+
+        private final Class<?> type;
+
+        private Placeholder(Class<?> type) {
+            this.type = type;
+        }
+
+        abstract Object get();
+    }
+
+    /**
+     * Invokes the destroy methods of a component.
+     */
+    public interface Destroyer {
+
+        void destroy(Object instance) throws Throwable;
+    }
+
+    /**
+     * Pushes a new element into the fields of a component.
+     */
+    public interface Refiller {
+
+        void refill(Object element) throws Throwable;
+    }
+
+    /**
+     * Passes an event to a subscribe method of a component.
+     */
+    public interface Subscriber {
+
+        void receive(Object event) throws Throwable;
+    }
+
+    private static class Refill {
+
+        private final Class<?> type;
+        private final Refiller refiller;
+
+        private Refill(Class<?> type, Refiller refiller) {
+            this.type = type;
+            this.refiller = refiller;
+        }
+    }
+
+    /**
+     * Only the constructor runs under the monitor of the placeholder. Fields are injected without holding it and
+     * completions run after the instance is published, so no lock is held while the context is written.
+     * Threads initializing components themselves get an instance still being initialized instead of waiting for it,
+     * two threads resolving each other's components then don't wait for one another.
+     */
+    /**
+     * Created on first lookup. The thread initializing it gets the instance back while it is still being initialized,
+     * e.g. when two lazy components load each other, every other thread waits until the instance is published.
+     */
+    private static class Lazy extends Placeholder {
+
+        /**
+         * The lazy component each thread waits for, so a wait closing a cycle of threads fails instead of blocking forever.
+         */
+        private static final Map<Thread, Lazy> AWAITED = new HashMap<>();
+
+        private LazyInitializer initializer;
+        private Object initializing;
+        private volatile Thread owner;
+        private volatile Object instance;
+
+        private Lazy(Class<?> type, LazyInitializer initializer) {
+            super(type);
+            this.initializer = initializer;
+        }
+
+        @Override
+        Object get() {
+            Object instance = this.instance;
+            if (instance != null) return instance;
+
+            final Initializations initializations = Initializations.CURRENT.get();
+            final Object created;
+            final LazyInitializer initializer;
+            synchronized (this) {
+                while (this.initializing != null) {
+                    if (this.owner == Thread.currentThread()) return this.initializing;
+                    this.await();
+                }
+                if (this.instance != null) return this.instance;
+
+                initializer = this.initializer;
+                created = initializer.instantiate();
+                this.initializing = created;
+                this.owner = Thread.currentThread();
+            }
+
+            initializations.depth++;
+            boolean initialized = false;
+            try {
+                initializer.initialize(created);
+                initialized = true;
+            } finally {
+                initializations.depth--;
+                synchronized (this) {
+                    this.initializing = null;
+                    this.owner = null;
+                    if (initialized) {
+                        this.initializer = null;
+                        this.instance = created;
+                    }
+                    this.notifyAll();
+                }
+            }
+            initializations.complete(initializer, created);
+            return created;
+        }
+
+        /**
+         * Waits for the owner to publish the instance, called holding the monitor.
+         *
+         * @throws IllegalStateException if the owner waits for the current thread, directly or through other threads
+         */
+        private void await() {
+            final Thread thread = Thread.currentThread();
+            synchronized (AWAITED) {
+                Thread owner = this.owner;
+                for (int i = 0; owner != null && i <= AWAITED.size(); i++) {
+                    if (owner == thread) {
+                        throw new IllegalStateException("Lazy component " + ((Placeholder) this).type.getSimpleName() + " is initialized by a thread waiting for the current one.");
+                    }
+                    final Lazy awaited = AWAITED.get(owner);
+                    owner = awaited == null ? null : awaited.owner;
+                }
+                AWAITED.put(thread, this);
+            }
+            try {
+                this.wait();
+            } catch (InterruptedException exception) {
+                thread.interrupt();
+                throw new InternalError("Interrupted while waiting for " + ((Placeholder) this).type.getSimpleName() + ".", exception);
+            } finally {
+                synchronized (AWAITED) {
+                    AWAITED.remove(thread);
+                }
+            }
+        }
+    }
+
+    private static class Prototype extends Placeholder {
+
+        private final LazyInitializer initializer;
+
+        private Prototype(Class<?> type, LazyInitializer initializer) {
+            super(type);
+            this.initializer = initializer;
+        }
+
+        @Override
+        Object get() {
+            Object created = this.initializer.instantiate();
+            this.initializer.initialize(created);
+            Initializations.CURRENT.get().complete(this.initializer, created);
+            return created;
+        }
+    }
+
+    private static class Pooled extends Placeholder {
+
+        private final ComponentPool<?> pool;
+
+        private Pooled(Class<?> type, ComponentPool<?> pool) {
+            super(type);
+            this.pool = pool;
+        }
+
+        @Override
+        Object get() {
+            return this.pool.borrow();
+        }
+    }
+
+    private static class ResolvingMap extends AbstractMap<Class<?>, Object> {
+
+        private final Map<Class<?>, Object> components;
+
+        private ResolvingMap(Map<Class<?>, Object> components) {
+            this.components = components;
+        }
+
+        @Override
+        public Object get(Object key) {
+            return resolve(this.components.get(key));
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return this.components.containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            return this.components.size();
+        }
+
+        @Override
+        public Set<Entry<Class<?>, Object>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<Class<?>, Object>> iterator() {
+                    Iterator<Entry<Class<?>, Object>> iterator = components.entrySet().iterator();
+                    return new Iterator<>() {
+                        @Override
+                        public boolean hasNext() {
+                            return iterator.hasNext();
+                        }
+
+                        @Override
+                        public Entry<Class<?>, Object> next() {
+                            Entry<Class<?>, Object> entry = iterator.next();
+                            return new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), null) {
+                                @Override
+                                public Object getValue() {
+                                    return resolve(entry.getValue());
+                                }
+                            };
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return components.size();
+                }
+            };
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * @author Tobias Cremer
+ * @project EasyClassController
+ */
+
+package dev.steerup.easyclasscontroller.context;
+
+import dev.steerup.easyclasscontroller.utils.ThreadUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Dispatches events to the subscribers of a context. The subscribers of an event class are collected into an array
+ * once, publishing an event then only walks that array. Asynchronous events are queued and dispatched in batches
+ * by a single thread, so they arrive in the order they were queued.
+ */
+class EventBus {
+
+    private static final int QUEUE_CAPACITY = 1 << 14;
+    private static final int BATCH_SIZE = 256;
+    private static final Subscription[] NO_SUBSCRIPTIONS = new Subscription[0];
+
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private volatile Map<Class<?>, Subscription[]> dispatchTables = new ConcurrentHashMap<>();
+
+    private EventQueue queue;
+    private ExecutorService executor;
+    private volatile boolean started;
+    private volatile Thread dispatcher;
+    private volatile boolean idle;
+    private volatile boolean closed;
+
+    void subscribe(Class<?> eventType, Class<?> clazz, Context.Subscriber subscriber) {
+        this.subscriptions.add(new Subscription(eventType, clazz, subscriber));
+        this.dispatchTables = new ConcurrentHashMap<>();
+    }
+
+    void unsubscribe(Collection<Class<?>> types) {
+        if (this.subscriptions.removeIf(subscription -> types.contains(subscription.type))) {
+            this.dispatchTables = new ConcurrentHashMap<>();
+        }
+    }
+
+    boolean hasSubscribers() {
+        return !this.subscriptions.isEmpty();
+    }
+
+    void publish(Object event) {
+        dispatch(this.dispatchTable(event.getClass()), event);
+    }
+
+    boolean publishAsync(Object event) {
+        if (this.closed) return false;
+        if (!this.started && !this.start()) return false;
+        if (!this.queue.offer(event)) return false;
+        if (this.idle) LockSupport.unpark(this.dispatcher);
+        return true;
+    }
+
+    /**
+     * Dispatches the queued events and stops the dispatching thread.
+     */
+    synchronized void close() {
+        this.closed = true;
+        if (!this.started) return;
+        LockSupport.unpark(this.dispatcher);
+        this.executor.shutdown();
+        try {
+            this.executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The queue and its thread are only created once the first event is queued, so contexts never publishing
+     * asynchronously stay cheap.
+     */
+    private synchronized boolean start() {
+        if (this.started) return true;
+        if (this.closed) return false;
+        this.queue = new EventQueue(QUEUE_CAPACITY);
+        this.executor = ThreadUtils.newTaskExecutor("events");
+        this.executor.execute(this::dispatchQueued);
+        this.started = true;
+        return true;
+    }
+
+    /**
+     * Tables are replaced rather than cleared when the subscriptions change, so a table computed from the old
+     * subscriptions never ends up in the new tables.
+     */
+    private Subscription[] dispatchTable(Class<?> eventClass) {
+        final Map<Class<?>, Subscription[]> dispatchTables = this.dispatchTables;
+        final Subscription[] dispatchTable = dispatchTables.get(eventClass);
+        if (dispatchTable != null) return dispatchTable;
+
+        final List<Subscription> subscriptions = new ArrayList<>();
+        for (Subscription subscription : this.subscriptions) {
+            if (subscription.eventType.isAssignableFrom(eventClass)) subscriptions.add(subscription);
+        }
+        final Subscription[] computed = subscriptions.isEmpty() ? NO_SUBSCRIPTIONS : subscriptions.toArray(Subscription[]::new);
+        dispatchTables.put(eventClass, computed);
+        return computed;
+    }
+
+    private static void dispatch(Subscription[] dispatchTable, Object event) {
+        for (Subscription subscription : dispatchTable) {
+            try {
+                subscription.subscriber.receive(event);
+            } catch (Throwable throwable) {
+                throwable.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Drains the queue batch by batch. The dispatch table is only looked up again if the event class changes.
+     * Before parking the thread announces it is idle and checks the queue once more, so no event is left behind.
+     */
+    private void dispatchQueued() {
+        this.dispatcher = Thread.currentThread();
+        final Object[] batch = new Object[BATCH_SIZE];
+        while (true) {
+            int size = 0;
+            Object event;
+            while (size < BATCH_SIZE && (event = this.queue.poll()) != null) {
+                batch[size++] = event;
+            }
+
+            Class<?> eventClass = null;
+            Subscription[] dispatchTable = NO_SUBSCRIPTIONS;
+            for (int i = 0; i < size; i++) {
+                if (batch[i].getClass() != eventClass) {
+                    eventClass = batch[i].getClass();
+                    dispatchTable = this.dispatchTable(eventClass);
+                }
+                dispatch(dispatchTable, batch[i]);
+                batch[i] = null;
+            }
+            if (size > 0) continue;
+
+            if (this.closed) return;
+            this.idle = true;
+            if (this.queue.isEmpty() && !this.closed) LockSupport.park(this);
+            this.idle = false;
+        }
+    }
+
+    private static class Subscription {
+
+        private final Class<?> eventType;
+        private final Class<?> type;
+        private final Context.Subscriber subscriber;
+
+        private Subscription(Class<?> eventType, Class<?> type, Context.Subscriber subscriber) {
+            this.eventType = eventType;
+            this.type = type;
+            this.subscriber = subscriber;
+        }
+    }
+}
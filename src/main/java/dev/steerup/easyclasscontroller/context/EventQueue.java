@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * @author Tobias Cremer
+ * @project EasyClassController
+ */
+
+package dev.steerup.easyclasscontroller.context;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded ring of events, offered by any thread and polled by a single one. Producers claim a slot by compare and set,
+ * every slot carries a sequence telling whether it is free to be written or ready to be read, so nothing ever blocks.
+ */
+class EventQueue {
+
+    private final AtomicReferenceArray<Object> events;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong offerPosition = new AtomicLong();
+    private long pollPosition;
+
+    /**
+     * @param capacity rounded up to the next power of two
+     */
+    EventQueue(int capacity) {
+        final int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.events = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            this.sequences.set(i, i);
+        }
+    }
+
+    /**
+     * @return false if the queue is full
+     */
+    boolean offer(Object event) {
+        long position = this.offerPosition.get();
+        while (true) {
+            final int index = (int) (position & this.mask);
+            final long difference = this.sequences.get(index) - position;
+            if (difference == 0) {
+                if (this.offerPosition.compareAndSet(position, position + 1)) {
+                    this.events.lazySet(index, event);
+                    this.sequences.set(index, position + 1);
+                    return true;
+                }
+                position = this.offerPosition.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = this.offerPosition.get();
+            }
+        }
+    }
+
+    /**
+     * Only called by the consuming thread.
+     *
+     * @return the oldest event, null if there is none
+     */
+    Object poll() {
+        final long position = this.pollPosition;
+        final int index = (int) (position & this.mask);
+        if (this.sequences.get(index) != position + 1) return null;
+
+        final Object event = this.events.get(index);
+        this.events.lazySet(index, null);
+        this.sequences.set(index, position + this.mask + 1);
+        this.pollPosition = position + 1;
+        return event;
+    }
+
+    /**
+     * Only called by the consuming thread.
+     */
+    boolean isEmpty() {
+        return this.sequences.get((int) (this.pollPosition & this.mask)) != this.pollPosition + 1;
+    }
+}
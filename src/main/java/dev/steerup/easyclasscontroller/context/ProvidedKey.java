@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * @author Tobias Cremer
+ * @project EasyClassController
+ */
+
+package dev.steerup.easyclasscontroller.context;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Looks up a provided element by a dense slot instead of hashing its name, see {@link Context#getProvidedElement(ProvidedKey)}.
+ * Keys are created once per name and JVM, keep them in a constant on hot paths.
+ * A key lives as long as a context provides its name or a constant holds it, its slot is reused afterwards.
+ */
+public final class ProvidedKey<T> {
+
+    private static final Slots SLOTS = new Slots();
+    private static final Map<String, WeakReference<ProvidedKey<?>>> KEYS = new ConcurrentHashMap<>();
+
+    private final String name;
+    final int slot;
+
+    private ProvidedKey(String name, int slot) {
+        this.name = name;
+        this.slot = slot;
+    }
+
+    public static <T> ProvidedKey<T> of(String name) {
+        ProvidedKey<T> key = find(name);
+        if (key != null) return key;
+        synchronized (KEYS) {
+            key = find(name);
+            if (key == null) {
+                key = SLOTS.allocate(slot -> new ProvidedKey<>(name, slot), () -> KEYS.computeIfPresent(name, (collectedName, reference) -> reference.get() == null ? null : reference));
+                KEYS.put(name, new WeakReference<>(key));
+            }
+            return key;
+        }
+    }
+
+    /**
+     * @return the key of the name if one was created, so looking up unknown names doesn't create keys
+     */
+    static <T> ProvidedKey<T> find(String name) {
+        final WeakReference<ProvidedKey<?>> reference = KEYS.get(name);
+        return reference == null ? null : (ProvidedKey<T>) reference.get();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return "ProvidedKey[" + this.name + "]";
+    }
+}
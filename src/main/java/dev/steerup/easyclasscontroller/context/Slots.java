@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * @author Tobias Cremer
+ * @project EasyClassController
+ */
+
+package dev.steerup.easyclasscontroller.context;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashSet;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+/**
+ * Hands out the slots of {@link ComponentKey}s or {@link ProvidedKey}s. A slot is freed once its key is garbage collected,
+ * nothing can be looked up by it anymore then, and the lowest free slot is handed out before a new one is taken.
+ * So slot arrays only grow with the keys alive at once, not with every class ever registered, e.g. by reloading a package.
+ */
+final class Slots {
+
+    private final ReferenceQueue<Object> collectedKeys = new ReferenceQueue<>();
+    private final Set<KeyReference> keys = new HashSet<>();
+    private final PriorityQueue<Integer> freeSlots = new PriorityQueue<>();
+    private int count;
+
+    /**
+     * @param onCollected called with the slot once the key is collected and its slot freed
+     */
+    synchronized <K> K allocate(IntFunction<K> keyFactory, Runnable onCollected) {
+        Reference<?> reference;
+        while ((reference = this.collectedKeys.poll()) != null) {
+            final KeyReference keyReference = (KeyReference) reference;
+            this.keys.remove(keyReference);
+            this.freeSlots.add(keyReference.slot);
+            keyReference.onCollected.run();
+        }
+        final int slot = this.freeSlots.isEmpty() ? this.count++ : this.freeSlots.poll();
+        final K key = keyFactory.apply(slot);
+        this.keys.add(new KeyReference(key, slot, onCollected, this.collectedKeys));
+        return key;
+    }
+
+    private static class KeyReference extends WeakReference<Object> {
+
+        private final int slot;
+        private final Runnable onCollected;
+
+        private KeyReference(Object key, int slot, Runnable onCollected, ReferenceQueue<Object> queue) {
+            super(key, queue);
+            this.slot = slot;
+            this.onCollected = onCollected;
+        }
+    }
+}
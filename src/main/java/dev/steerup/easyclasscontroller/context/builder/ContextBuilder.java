@@ -7,116 +7,243 @@
 
 package dev.steerup.easyclasscontroller.context.builder;
 
-import dev.steerup.easyclasscontroller.annotations.field.Fill;
-import dev.steerup.easyclasscontroller.annotations.field.Load;
-import dev.steerup.easyclasscontroller.annotations.field.Provide;
 import dev.steerup.easyclasscontroller.annotations.method.Construct;
 import dev.steerup.easyclasscontroller.annotations.type.Component;
 import dev.steerup.easyclasscontroller.context.Context;
 import dev.steerup.easyclasscontroller.context.classes.ClassFetcher;
+import dev.steerup.easyclasscontroller.context.classes.ClasspathClassFetcher;
+import dev.steerup.easyclasscontroller.context.classes.ScanCache;
+import dev.steerup.easyclasscontroller.context.classes.ScanHistory;
+import dev.steerup.easyclasscontroller.context.classes.ScanMode;
+import dev.steerup.easyclasscontroller.context.factory.ComponentDefinition;
+import dev.steerup.easyclasscontroller.context.factory.ContextFactories;
+import dev.steerup.easyclasscontroller.context.metrics.BootstrapListener;
+import dev.steerup.easyclasscontroller.context.metrics.BootstrapPhase;
 import dev.steerup.easyclasscontroller.custom.ClassLoader;
-import dev.steerup.easyclasscontroller.utils.ReflectionUtils;
+import dev.steerup.easyclasscontroller.utils.ThreadUtils;
 
 import java.io.IOException;
-import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Parameter;
+import java.time.Duration;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
 
 public class ContextBuilder {
 
     private final List<Class<?>> classes = new ArrayList<>();
+    private final List<ComponentDefinition> definitions = new ArrayList<>();
+    private final List<ComponentDefinition> placeholderDefinitions = new ArrayList<>();
     private final Class<?> baseClass;
     private final Context context;
     private final String path;
 
+    private BootstrapListener listener = BootstrapListener.NONE;
+    private Optional<ScanCache> scanCache = Optional.empty();
+    private ScanMode scanMode = ScanMode.CODE_SOURCE;
+    private Optional<ScanHistory> scanHistory = Optional.empty();
+    private Set<String> providedNames = Set.of();
+    private boolean published;
+    private long phaseStartNanos;
+    private long phaseStartAllocatedBytes;
+
     private ContextBuilder(Class<?> baseClass, String path, Optional<Context> optionalContext) {
         this.baseClass = baseClass;
         this.path = path;
         this.context = optionalContext.orElseGet(Context::new);
+        this.context.beginBatch();
     }
 
     public static ContextBuilder create(Class<?> baseClass, String path, Optional<Context> optionalContext) {
         return new ContextBuilder(baseClass, path, optionalContext);
     }
 
+    /**
+     * Reports the duration of every phase, component constructor and construct method to the given listener.
+     */
+    public ContextBuilder listener(BootstrapListener listener) {
+        this.listener = listener;
+        return this;
+    }
+
+    /**
+     * Lets {@link #initializeClasses(Optional)} skip scanning jars which didn't change since the cache entry was written.
+     */
+    public ContextBuilder scanCache(Optional<ScanCache> scanCache) {
+        this.scanCache = scanCache;
+        return this;
+    }
+
+    public ContextBuilder scanMode(ScanMode scanMode) {
+        this.scanMode = scanMode;
+        return this;
+    }
+
+    /**
+     * Lets {@link #initializeClasses(Optional)} reuse the components found by earlier builds of the same context.
+     */
+    public ContextBuilder scanHistory(Optional<ScanHistory> scanHistory) {
+        this.scanHistory = scanHistory;
+        return this;
+    }
+
     public ContextBuilder preBuilt(Consumer<Context> preBuiltContextConsumer) {
         preBuiltContextConsumer.accept(this.context);
         return this;
     }
 
+    /**
+     * Components already present in the context, e.g. from an earlier attach, are neither scanned nor created again.
+     */
     public ContextBuilder initializeClasses(Optional<ClassLoader> classLoader) throws IOException, ClassNotFoundException {
+        this.startPhase();
         if (classLoader.isEmpty()) {
-            ClassFetcher.fetch(this.baseClass, this.path, fetchedClasses -> fetchedClasses
-                    .stream()
-                    .filter(clazz -> clazz.isAnnotationPresent(Component.class))
-                    .forEach(this.classes::add)
-            );
+            this.fetchClasses();
         } else {
             final var classes = classLoader.get().loadClasses(this.path);
             this.classes.addAll(classes);
+            this.listener.classesScanned(classes.size(), classes.size());
         }
+        this.classes.removeIf(this.context::hasComponent);
+        this.classes.forEach(clazz -> this.definitions.add(ContextFactories
+                .findDefinition(clazz)
+                .orElseGet(() -> InjectionPlan.of(clazz))));
+        this.completePhase(BootstrapPhase.INITIALIZE_CLASSES);
         return this;
     }
 
+    private void fetchClasses() throws IOException, ClassNotFoundException {
+        final String location = this.scanMode == ScanMode.CLASSPATH ? null : String.valueOf(this.baseClass.getProtectionDomain().getCodeSource().getLocation());
+        final java.lang.ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        final Optional<List<Class<?>>> scannedClasses = this.scanHistory.flatMap(scanHistory -> scanHistory.find(location, classLoader, this.path));
+        if (scannedClasses.isPresent()) {
+            this.classes.addAll(scannedClasses.get());
+            this.listener.classesScanned(0, scannedClasses.get().size());
+            return;
+        }
+
+        final Consumer<List<Class<?>>> classesFetchedConsumer = fetchedClasses -> fetchedClasses
+                .stream()
+                .filter(clazz -> clazz.isAnnotationPresent(Component.class))
+                .forEach(this.classes::add);
+        if (this.scanMode == ScanMode.CLASSPATH) {
+            ClasspathClassFetcher.fetch(this.path, classesFetchedConsumer, this.listener);
+        } else {
+            ClassFetcher.fetch(this.baseClass, this.path, classesFetchedConsumer, this.listener, this.scanCache);
+        }
+        this.scanHistory.ifPresent(scanHistory -> scanHistory.record(location, classLoader, this.path, this.classes));
+    }
+
     public ContextBuilder instantiateClasses() {
-        final CopyOnWriteArrayList<Class<?>> classes = new CopyOnWriteArrayList<>(this.classes);
+        return instantiateClasses(Optional.empty());
+    }
 
-        int maxIterations = this.classes.size() / 5 + 2;
-        int iterations = 0;
+    /**
+     * @param executor if present, independent components are instantiated concurrently on it
+     */
+    public ContextBuilder instantiateClasses(Optional<Executor> executor) {
+        this.startPhase();
+        this.placeholderDefinitions.addAll(separatePlaceholderDefinitions());
+        final DependencyGraph graph = DependencyGraph.build(this.definitions, this.context);
+        final int[] order = graph.sort();
 
-        while (!classes.isEmpty()) {
-            if (iterations >= maxIterations) {
-                throw new IllegalArgumentException("Classes could not be instantiated: " + classes.stream().map(clazz -> clazz.getSimpleName() + "(Parameters: " + Arrays.stream(clazz.getConstructors()[0].getParameters()).map(parameter -> parameter.getType().getSimpleName() + " " + parameter.getName()).collect(Collectors.joining(", ")) + ")").collect(Collectors.joining(", ")));
+        final Object[] instances;
+        if (executor.isPresent()) {
+            instances = ParallelInstantiator.instantiate(graph, executor.get(), this.listener);
+        } else {
+            instances = new Object[graph.size()];
+            for (int index : order) {
+                instances[index] = instantiateClass(graph.getDefinition(index), graph.arguments(index, instances));
             }
-            iterations++;
-            for (Class<?> clazz : classes) {
-                classes.remove(clazz);
-                final Constructor<?> constructor = clazz.getConstructors()[0];
-                final int parameterCount = constructor.getParameterCount();
-
-                if (parameterCount == 0) {
-                    Object instance = instantiateClass(clazz);
-                    context.registerComponent(clazz, instance);
-                } else {
-                    List<Object> args = new ArrayList<>();
-                    for (Parameter parameter : constructor.getParameters()) {
-                        final Class<?> parameterType = parameter.getType();
-                        final Object parameterInstance = context.getComponent(parameterType);
-
-                        if (parameterInstance != null) {
-                            args.add(parameterInstance);
-                        } else {
-                            final String parameterName = parameter.getName();
-                            final Object providedElement = context.getProvidedElement(parameterName);
-                            if (providedElement != null) {
-                                args.add(providedElement);
-                            } else {
-                                final Object providedElementByType = context.getProvidedElementByType(parameterType);
-                                if (providedElementByType != null) {
-                                    args.add(providedElementByType);
-                                } else {
-                                    break;
-                                }
-                            }
-                        }
-                    }
-                    if (args.size() != parameterCount) {
-                        classes.add(clazz);
-                        continue;
-                    }
-                    final Object instance = instantiateClass(clazz, args.toArray());
-                    context.registerComponent(clazz, instance);
+        }
+
+        for (int index : order) {
+            context.registerComponent(graph.getDefinition(index).getType(), instances[index]);
+        }
+        this.placeholderDefinitions.forEach(this::registerPlaceholder);
+        this.completePhase(BootstrapPhase.INSTANTIATE_CLASSES);
+        return this;
+    }
+
+    /**
+     * Removes the lazy, prototype and pooled components from the definitions, except the lazy ones an eager component needs in its constructor.
+     *
+     * @return the definitions of the components to register as placeholders
+     * @throws IllegalArgumentException if an eager component needs a prototype or pooled one in its constructor
+     */
+    private List<ComponentDefinition> separatePlaceholderDefinitions() {
+        final Map<Class<?>, ComponentDefinition> lazyDefinitions = new LinkedHashMap<>();
+        final Map<Class<?>, ComponentDefinition> scopedDefinitions = new LinkedHashMap<>();
+        final Deque<ComponentDefinition> eagerDefinitions = new ArrayDeque<>();
+        for (ComponentDefinition definition : this.definitions) {
+            final Component component = definition.getType().getAnnotation(Component.class);
+            if (component != null && component.scope() != Component.Scope.SINGLETON) {
+                scopedDefinitions.put(definition.getType(), definition);
+            } else if (component != null && component.lazy()) {
+                lazyDefinitions.put(definition.getType(), definition);
+            } else {
+                eagerDefinitions.add(definition);
+            }
+        }
+        if (lazyDefinitions.isEmpty() && scopedDefinitions.isEmpty()) return List.of();
+
+        final List<String> unresolved = new ArrayList<>();
+        while (!eagerDefinitions.isEmpty()) {
+            final ComponentDefinition definition = eagerDefinitions.poll();
+            for (Class<?> parameterType : definition.getParameterTypes()) {
+                if (scopedDefinitions.containsKey(parameterType)) {
+                    unresolved.add(DependencyGraph.describe(definition));
+                    break;
+                }
+                final ComponentDefinition required = lazyDefinitions.remove(parameterType);
+                if (required != null) {
+                    eagerDefinitions.add(required);
+                    continue;
                 }
+                lazyDefinitions.values().removeIf(lazyDefinition -> {
+                    if (!parameterType.isAssignableFrom(lazyDefinition.getType())) return false;
+                    eagerDefinitions.add(lazyDefinition);
+                    return true;
+                });
             }
         }
-        return this;
+        if (!unresolved.isEmpty()) {
+            throw new IllegalArgumentException("Classes need prototype or pooled components in their constructors: " + String.join(", ", unresolved));
+        }
+
+        final List<ComponentDefinition> placeholderDefinitions = new ArrayList<>(lazyDefinitions.values());
+        placeholderDefinitions.addAll(scopedDefinitions.values());
+        this.definitions.removeIf(definition -> lazyDefinitions.containsKey(definition.getType()) || scopedDefinitions.containsKey(definition.getType()));
+        return placeholderDefinitions;
+    }
+
+    private void registerPlaceholder(ComponentDefinition definition) {
+        final Component component = definition.getType().getAnnotation(Component.class);
+        final Component.Scope scope = component == null ? Component.Scope.SINGLETON : component.scope();
+        switch (scope) {
+            case PROTOTYPE:
+                this.context.registerPrototypeComponent(definition.getType(), new LazyComponentInitializer(definition, this.context, false));
+                break;
+            case POOLED:
+                this.context.registerPooledComponent(definition.getType(), component.poolSize(), new LazyComponentInitializer(definition, this.context, false));
+                break;
+            default:
+                this.context.registerLazyComponent(definition.getType(), new LazyComponentInitializer(definition, this.context, true));
+        }
     }
 
     public ContextBuilder registerExtraComponents() {
@@ -125,83 +252,254 @@ public class ContextBuilder {
     }
 
     public ContextBuilder loadProvidedElements() {
-        classes.forEach(clazz -> {
-            Object component = context.getComponent(clazz);
-            Arrays.stream(clazz.getDeclaredFields())
-                    .filter(field -> field.isAnnotationPresent(Provide.class))
-                    .forEach(field -> {
-                        Provide provideAnnotation = field.getAnnotation(Provide.class);
-
-                        String provideAnnotationName = provideAnnotation.value();
-                        String name = provideAnnotationName.equals("") ? field.getName() : provideAnnotationName;
-                        Object fieldValue = ReflectionUtils.getFieldValue(field, component);
-
-                        context.provide(name, fieldValue);
-                    });
-        });
-
+        this.startPhase();
+        definitions.forEach(definition -> definition.provideElements(context.getComponent(definition.getType()), context));
+        this.completePhase(BootstrapPhase.LOAD_PROVIDED_ELEMENTS);
         return this;
     }
 
+    /**
+     * @throws IllegalArgumentException naming every field whose type matches several components. Fields matching none stay null
+     * and are reported to the {@link BootstrapListener} without failing the build, they may be loaded by a later attach.
+     */
     public ContextBuilder setProvidedComponents() {
-        classes.forEach(clazz -> {
-            Object component = context.getComponent(clazz);
-            Arrays.stream(clazz.getDeclaredFields())
-                    .filter(field -> field.isAnnotationPresent(Load.class))
-                    .forEach(field -> {
-                        Class<?> type = field.getType();
-                        Object providedComponent = context.getComponent(type);
-
-                        ReflectionUtils.setFieldValue(field, component, providedComponent);
-                    });
-        });
+        this.startPhase();
+        final List<String> ambiguous = new ArrayList<>();
+        for (ComponentDefinition definition : this.definitions) {
+            for (Class<?> loadedType : definition.getLoadedTypes()) {
+                final List<Class<?>> componentTypes = this.context.getComponentTypes(loadedType);
+                if (componentTypes.isEmpty()) {
+                    this.listener.componentNotLoaded(definition.getType(), loadedType);
+                } else if (componentTypes.size() > 1 && !this.context.hasComponent(loadedType)) {
+                    ambiguous.add(definition.getType().getSimpleName() + "(Loads: " + loadedType.getSimpleName() + ")");
+                }
+            }
+        }
+        if (!ambiguous.isEmpty()) {
+            throw new IllegalArgumentException("Components have ambiguous fields: " + String.join(", ", ambiguous));
+        }
+
+        definitions.forEach(definition -> definition.loadComponents(context.getComponent(definition.getType()), context));
+        this.completePhase(BootstrapPhase.SET_PROVIDED_COMPONENTS);
         return this;
     }
 
     public ContextBuilder setProvidedElements() {
-        classes.forEach(clazz -> {
-            Object component = context.getComponent(clazz);
-            Arrays.stream(clazz.getDeclaredFields())
-                    .filter(field -> field.isAnnotationPresent(Fill.class))
-                    .forEach(field -> {
-                        Fill filAnnotation = field.getAnnotation(Fill.class);
-
-                        String fillAnnotationName = filAnnotation.value();
-                        String name = fillAnnotationName.equals("") ? field.getName() : fillAnnotationName;
-                        Object providedElement = context.getProvidedElement(name);
-
-                        ReflectionUtils.setFieldValue(field, component, providedElement);
-                    });
-        });
+        this.startPhase();
+        definitions.forEach(definition -> definition.fillElements(context.getComponent(definition.getType()), context));
+        this.completePhase(BootstrapPhase.SET_PROVIDED_ELEMENTS);
         return this;
     }
 
     public ContextBuilder performConstructMethods() {
+        this.startPhase();
         Arrays.stream(Construct.Priority.values()).forEach(this::performConstructMethod);
+        this.completePhase(BootstrapPhase.PERFORM_CONSTRUCT_METHODS);
+        return this;
+    }
+
+    /**
+     * Runs the construct methods of all components sharing a priority concurrently, on virtual threads if available.
+     * The next priority starts only after every method of the previous one returned.
+     * Methods of the same component still run one after another.
+     * The threads running the methods share the batch of this builder, see {@link Context#invokeSharingBatch}.
+     *
+     * @param timeout how long the methods of a single priority may take
+     * @throws InternalError carrying every failure of the first priority which didn't complete
+     */
+    public ContextBuilder performConstructMethodsConcurrently(Optional<Duration> timeout) {
+        this.startPhase();
+        final ExecutorService executor = ThreadUtils.newTaskExecutor("construct");
+        try {
+            for (Construct.Priority priority : Construct.Priority.values()) {
+                performConstructMethodConcurrently(priority, executor, timeout);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        this.completePhase(BootstrapPhase.PERFORM_CONSTRUCT_METHODS);
+        return this;
+    }
+
+    /**
+     * Makes the wired components visible to other threads at once. Construct methods run before, within the batch,
+     * so no other thread sees a component whose construct methods didn't run yet.
+     */
+    public ContextBuilder publish() {
+        if (!this.published) {
+            this.published = true;
+            this.providedNames = this.context.getProvidedNamesOfBatch();
+            this.context.commitBatch();
+            this.definitions.forEach(definition -> {
+                Object instance = this.context.getComponent(definition.getType());
+                registerDestroyer(definition, instance, this.context);
+                registerRefillers(definition, instance, this.context);
+                registerSubscribers(definition, instance, this.context);
+            });
+        }
         return this;
     }
 
+    /**
+     * Lets the subscribe methods of the component receive published events.
+     */
+    static void registerSubscribers(ComponentDefinition definition, Object instance, Context context) {
+        final Class<?>[] subscribedTypes = definition.getSubscribedTypes();
+        for (int i = 0; i < subscribedTypes.length; i++) {
+            final int subscription = i;
+            context.registerSubscriber(subscribedTypes[i], definition.getType(), event -> definition.receive(instance, subscription, event));
+        }
+    }
+
+    /**
+     * Lets the filled fields of the component follow later {@link Context#provide(String, Object)} calls.
+     */
+    static void registerRefillers(ComponentDefinition definition, Object instance, Context context) {
+        for (String name : definition.getFilledNames()) {
+            context.registerRefiller(name, definition.getType(), element -> {
+                definition.fillElement(instance, name, element);
+                if (definition.hasRefilledMethods()) definition.refilled(instance);
+            });
+        }
+    }
+
+    /**
+     * Registers the component with the types it was wired with, so it is destroyed before them.
+     */
+    static void registerDestroyer(ComponentDefinition definition, Object instance, Context context) {
+        final List<Class<?>> dependencies = new ArrayList<>(Arrays.asList(definition.getParameterTypes()));
+        dependencies.addAll(Arrays.asList(definition.getLoadedTypes()));
+        dependencies.addAll(Arrays.asList(definition.getLoadedElementTypes()));
+        context.registerDestroyer(definition.getType(), instance, dependencies.toArray(Class<?>[]::new), definition.hasDestroyMethods() ? definition::destroy : null);
+    }
+
+    /**
+     * Drops everything registered by this builder if it failed before {@link #publish()}.
+     */
+    public void discard() {
+        if (!this.published) {
+            this.published = true;
+            this.context.discardBatch();
+        }
+    }
+
+    /**
+     * @return the definitions of the components created eagerly by this builder
+     */
+    public List<ComponentDefinition> getDefinitions() {
+        return List.copyOf(this.definitions);
+    }
+
+    /**
+     * @return the definitions of the lazy, prototype and pooled components registered as placeholders by this builder
+     */
+    public List<ComponentDefinition> getPlaceholderDefinitions() {
+        return List.copyOf(this.placeholderDefinitions);
+    }
+
+    /**
+     * @return the names of the elements provided until {@link #publish()}, including the ones provided by the pre built consumer
+     */
+    public Set<String> getProvidedNames() {
+        return this.providedNames;
+    }
+
     public Context build() {
+        this.publish();
         return this.context;
     }
 
     private void performConstructMethod(Construct.Priority priority) {
-        classes.forEach(clazz -> {
-            Object component = context.getComponent(clazz);
-            Arrays.stream(clazz.getDeclaredMethods())
-                    .filter(method -> method.isAnnotationPresent(Construct.class))
-                    .filter(method -> method.getAnnotation(Construct.class).value().equals(priority))
-                    .forEach(method -> ReflectionUtils.invokeMethod(method, component));
+        definitions.forEach(definition -> {
+            if (!definition.hasConstructMethods(priority)) return;
+            Object component = context.getComponent(definition.getType());
+            final long start = System.nanoTime();
+            try {
+                definition.construct(component, priority);
+            } catch (Throwable throwable) {
+                throwable.printStackTrace();
+            }
+            this.listener.constructMethodsPerformed(definition.getType(), priority, Duration.ofNanos(System.nanoTime() - start));
         });
     }
 
-    private Object instantiateClass(Class<?> clazz, Object... args) {
+    private void performConstructMethodConcurrently(Construct.Priority priority, ExecutorService executor, Optional<Duration> timeout) {
+        final List<ComponentDefinition> prioritizedDefinitions = new ArrayList<>();
+        final List<Callable<Void>> tasks = new ArrayList<>();
+        definitions.forEach(definition -> {
+            if (!definition.hasConstructMethods(priority)) return;
+            final Object component = context.getComponent(definition.getType());
+            prioritizedDefinitions.add(definition);
+            tasks.add(() -> {
+                final long start = System.nanoTime();
+                try {
+                    definition.construct(component, priority);
+                } catch (Exception | Error exception) {
+                    throw exception;
+                } catch (Throwable throwable) {
+                    throw new InvocationTargetException(throwable);
+                } finally {
+                    this.listener.constructMethodsPerformed(definition.getType(), priority, Duration.ofNanos(System.nanoTime() - start));
+                }
+                return null;
+            });
+        });
+        if (tasks.isEmpty()) return;
+
+        final List<Future<Void>> futures;
+        try {
+            futures = this.context.invokeSharingBatch(executor, tasks, timeout);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new InternalError("Interrupted while performing construct methods of priority " + priority + ".", exception);
+        }
+
+        final List<String> failedComponents = new ArrayList<>();
+        final List<Throwable> failures = new ArrayList<>();
+        for (int i = 0; i < futures.size(); i++) {
+            final Future<Void> future = futures.get(i);
+            final String componentName = prioritizedDefinitions.get(i).getType().getSimpleName();
+            try {
+                future.get();
+            } catch (CancellationException exception) {
+                failedComponents.add(componentName);
+                failures.add(new TimeoutException(componentName + " didn't finish within " + timeout.map(Duration::toString).orElse("the timeout") + "."));
+            } catch (ExecutionException exception) {
+                failedComponents.add(componentName);
+                failures.add(exception.getCause());
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new InternalError("Interrupted while performing construct methods of priority " + priority + ".", exception);
+            }
+        }
+
+        if (!failures.isEmpty()) {
+            final InternalError error = new InternalError("Construct methods of priority " + priority + " failed: " + String.join(", ", failedComponents));
+            failures.forEach(error::addSuppressed);
+            throw error;
+        }
+    }
+
+    private Object instantiateClass(ComponentDefinition definition, Object... args) {
+        final long start = System.nanoTime();
         try {
-            final Constructor<?> constructor = clazz.getConstructors()[0];
-            return constructor.newInstance(args);
-        } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
-            e.printStackTrace();
-            throw new InternalError("Class " + clazz.getSimpleName() + " could not be instantiated.");
+            final Object instance = definition.instantiate(args);
+            this.listener.componentInstantiated(definition.getType(), Duration.ofNanos(System.nanoTime() - start));
+            return instance;
+        } catch (Throwable throwable) {
+            throwable.printStackTrace();
+            throw new InternalError("Class " + definition.getType().getSimpleName() + " could not be instantiated.");
         }
     }
+
+    private void startPhase() {
+        this.phaseStartAllocatedBytes = ThreadUtils.currentThreadAllocatedBytes();
+        this.phaseStartNanos = System.nanoTime();
+    }
+
+    private void completePhase(BootstrapPhase phase) {
+        final Duration wallTime = Duration.ofNanos(System.nanoTime() - this.phaseStartNanos);
+        final long allocatedBytes = this.phaseStartAllocatedBytes == -1 ? -1 : ThreadUtils.currentThreadAllocatedBytes() - this.phaseStartAllocatedBytes;
+        this.listener.phaseCompleted(phase, wallTime, allocatedBytes);
+    }
 }
\ No newline at end of file
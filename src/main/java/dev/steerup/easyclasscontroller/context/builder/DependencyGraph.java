@@ -0,0 +1,242 @@
+package dev.steerup.easyclasscontroller.context.builder;
+
+import dev.steerup.easyclasscontroller.context.Context;
+import dev.steerup.easyclasscontroller.context.factory.ComponentDefinition;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Constructor dependencies between the components of one build. Every parameter is resolved once,
+ * either to another component of the build or to a value already present in the context,
+ * so the components can be instantiated in topological order. A parameter matching no class exactly
+ * is resolved to the only component assignable to it, the candidates of every type are computed once per build.
+ */
+class DependencyGraph {
+
+    private static final int RESOLVED = -1;
+
+    private final List<ComponentDefinition> definitions;
+    private final Object[][] arguments;
+    private final int[][] dependencies;
+    private final int[][] dependants;
+
+    private DependencyGraph(List<ComponentDefinition> definitions) {
+        this.definitions = definitions;
+        this.arguments = new Object[definitions.size()][];
+        this.dependencies = new int[definitions.size()][];
+        this.dependants = new int[definitions.size()][];
+    }
+
+    static DependencyGraph build(List<ComponentDefinition> definitions, Context context) {
+        return new DependencyGraph(definitions).resolve(context);
+    }
+
+    private DependencyGraph resolve(Context context) {
+        final Map<Class<?>, Integer> indexes = new HashMap<>();
+        for (int i = 0; i < this.definitions.size(); i++) {
+            indexes.put(this.definitions.get(i).getType(), i);
+        }
+        final Map<Class<?>, List<Integer>> assignableIndexes = new HashMap<>();
+
+        final List<String> unresolved = new ArrayList<>();
+        final List<String> ambiguous = new ArrayList<>();
+        final int[] dependantCounts = new int[this.definitions.size()];
+
+        for (int i = 0; i < this.definitions.size(); i++) {
+            final ComponentDefinition definition = this.definitions.get(i);
+            final Class<?>[] parameterTypes = definition.getParameterTypes();
+            final String[] parameterNames = definition.getParameterNames();
+
+            this.arguments[i] = new Object[parameterTypes.length];
+            this.dependencies[i] = new int[parameterTypes.length];
+
+            for (int j = 0; j < parameterTypes.length; j++) {
+                this.dependencies[i][j] = RESOLVED;
+
+                final Object component = context.getComponent(parameterTypes[j]);
+                if (component != null) {
+                    this.arguments[i][j] = component;
+                    continue;
+                }
+
+                final Integer dependency = indexes.get(parameterTypes[j]);
+                if (dependency != null) {
+                    this.dependencies[i][j] = dependency;
+                    dependantCounts[dependency]++;
+                    continue;
+                }
+
+                Object providedElement = context.getProvidedElement(parameterNames[j]);
+                if (providedElement != null) {
+                    this.arguments[i][j] = providedElement;
+                    continue;
+                }
+
+                final List<Class<?>> componentTypes = context.getComponentTypes(parameterTypes[j]);
+                final List<Integer> candidates = assignableIndexes.computeIfAbsent(parameterTypes[j], this::findAssignable);
+                if (componentTypes.size() + candidates.size() > 1) {
+                    final List<String> names = new ArrayList<>();
+                    componentTypes.forEach(type -> names.add(type.getSimpleName()));
+                    candidates.forEach(candidate -> names.add(this.definitions.get(candidate).getType().getSimpleName()));
+                    ambiguous.add(describe(definition) + " " + parameterTypes[j].getSimpleName() + " matches " + String.join(", ", names));
+                    break;
+                }
+                if (componentTypes.size() == 1) {
+                    this.arguments[i][j] = context.getComponent(componentTypes.get(0));
+                    continue;
+                }
+                if (candidates.size() == 1) {
+                    this.dependencies[i][j] = candidates.get(0);
+                    dependantCounts[candidates.get(0)]++;
+                    continue;
+                }
+
+                providedElement = context.getProvidedElementByType(parameterTypes[j]);
+                if (providedElement == null) {
+                    unresolved.add(describe(definition));
+                    break;
+                }
+                this.arguments[i][j] = providedElement;
+            }
+        }
+
+        if (!ambiguous.isEmpty()) {
+            throw new IllegalArgumentException("Classes have ambiguous dependencies: " + String.join(", ", ambiguous));
+        }
+        if (!unresolved.isEmpty()) {
+            throw new IllegalArgumentException("Classes could not be instantiated: " + String.join(", ", unresolved));
+        }
+
+        for (int i = 0; i < this.definitions.size(); i++) {
+            this.dependants[i] = new int[dependantCounts[i]];
+        }
+        final int[] filled = new int[this.definitions.size()];
+        for (int i = 0; i < this.definitions.size(); i++) {
+            for (int dependency : this.dependencies[i]) {
+                if (dependency != RESOLVED) {
+                    this.dependants[dependency][filled[dependency]++] = i;
+                }
+            }
+        }
+        return this;
+    }
+
+    private List<Integer> findAssignable(Class<?> type) {
+        final List<Integer> assignable = new ArrayList<>();
+        for (int i = 0; i < this.definitions.size(); i++) {
+            if (type.isAssignableFrom(this.definitions.get(i).getType())) assignable.add(i);
+        }
+        return assignable;
+    }
+
+    /**
+     * Kahn's algorithm, O(V + E).
+     *
+     * @throws IllegalArgumentException naming the exact cycle if the components depend on each other
+     */
+    int[] sort() {
+        final int[] inDegrees = this.inDegrees();
+        final Deque<Integer> ready = new ArrayDeque<>();
+        for (int i = 0; i < inDegrees.length; i++) {
+            if (inDegrees[i] == 0) ready.add(i);
+        }
+
+        final int[] sorted = new int[this.definitions.size()];
+        int count = 0;
+        while (!ready.isEmpty()) {
+            final int index = ready.poll();
+            sorted[count++] = index;
+            for (int dependant : this.dependants[index]) {
+                if (--inDegrees[dependant] == 0) ready.add(dependant);
+            }
+        }
+
+        if (count != sorted.length) {
+            throw new IllegalArgumentException("Circular dependency: " + this.findCycle(inDegrees));
+        }
+        return sorted;
+    }
+
+    int size() {
+        return this.definitions.size();
+    }
+
+    ComponentDefinition getDefinition(int index) {
+        return this.definitions.get(index);
+    }
+
+    int[] getDependants(int index) {
+        return this.dependants[index];
+    }
+
+    int[] inDegrees() {
+        final int[] inDegrees = new int[this.definitions.size()];
+        for (int i = 0; i < this.definitions.size(); i++) {
+            for (int dependency : this.dependencies[i]) {
+                if (dependency != RESOLVED) inDegrees[i]++;
+            }
+        }
+        return inDegrees;
+    }
+
+    /**
+     * @param instances the instances of the components which have been created so far, by index
+     */
+    Object[] arguments(int index, Object[] instances) {
+        final Object[] arguments = this.arguments[index].clone();
+        final int[] dependencies = this.dependencies[index];
+        for (int i = 0; i < dependencies.length; i++) {
+            if (dependencies[i] != RESOLVED) {
+                arguments[i] = instances[dependencies[i]];
+            }
+        }
+        return arguments;
+    }
+
+    /**
+     * Follows the dependencies of the nodes Kahn's algorithm couldn't remove until one repeats.
+     */
+    private String findCycle(int[] inDegrees) {
+        int start = 0;
+        while (inDegrees[start] == 0) start++;
+
+        final int[] positions = new int[this.definitions.size()];
+        Arrays.fill(positions, -1);
+        final List<Integer> path = new ArrayList<>();
+
+        int current = start;
+        while (positions[current] == -1) {
+            positions[current] = path.size();
+            path.add(current);
+            for (int dependency : this.dependencies[current]) {
+                if (dependency != RESOLVED && inDegrees[dependency] > 0) {
+                    current = dependency;
+                    break;
+                }
+            }
+        }
+
+        final List<Integer> cycle = new ArrayList<>(path.subList(positions[current], path.size()));
+        cycle.add(current);
+        return cycle.stream()
+                .map(index -> this.definitions.get(index).getType().getSimpleName())
+                .collect(Collectors.joining(" -> "));
+    }
+
+    static String describe(ComponentDefinition definition) {
+        final Class<?>[] parameterTypes = definition.getParameterTypes();
+        final String[] parameterNames = definition.getParameterNames();
+        final List<String> parameters = new ArrayList<>();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            parameters.add(parameterTypes[i].getSimpleName() + " " + parameterNames[i]);
+        }
+        return definition.getType().getSimpleName() + "(Parameters: " + String.join(", ", parameters) + ")";
+    }
+}
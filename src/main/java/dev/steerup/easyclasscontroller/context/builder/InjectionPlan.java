@@ -0,0 +1,360 @@
+package dev.steerup.easyclasscontroller.context.builder;
+
+import dev.steerup.easyclasscontroller.annotations.field.Fill;
+import dev.steerup.easyclasscontroller.annotations.field.Load;
+import dev.steerup.easyclasscontroller.annotations.field.Provide;
+import dev.steerup.easyclasscontroller.annotations.method.Construct;
+import dev.steerup.easyclasscontroller.annotations.method.Destroy;
+import dev.steerup.easyclasscontroller.annotations.method.Refilled;
+import dev.steerup.easyclasscontroller.annotations.method.Subscribe;
+import dev.steerup.easyclasscontroller.context.Context;
+import dev.steerup.easyclasscontroller.context.factory.ComponentDefinition;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The reflective {@link ComponentDefinition} of components without a generated
+ * {@link dev.steerup.easyclasscontroller.context.factory.ContextFactory}. Fields and methods are
+ * inspected once per class and JVM, every phase then runs from pre-resolved method handles.
+ */
+public class InjectionPlan implements ComponentDefinition {
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(void.class, Object.class);
+    private static final MethodType RECEIVER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final MethodHandle[] NO_HANDLES = new MethodHandle[0];
+
+    private static final ClassValue<InjectionPlan> PLANS = new ClassValue<>() {
+        @Override
+        protected InjectionPlan computeValue(Class<?> type) {
+            return new InjectionPlan(type);
+        }
+    };
+
+    private final Class<?> clazz;
+    private final Class<?>[] parameterTypes;
+    private final String[] parameterNames;
+    private final MethodHandle constructor;
+    private final List<ProvidedField> providedFields = new ArrayList<>();
+    private final List<LoadedField> loadedFields = new ArrayList<>();
+    private final List<FilledField> filledFields = new ArrayList<>();
+    private final Map<Construct.Priority, MethodHandle[]> constructMethods = new EnumMap<>(Construct.Priority.class);
+    private final MethodHandle[] destroyMethods;
+    private final MethodHandle[] refilledMethods;
+    private final Class<?>[] subscribedTypes;
+    private final MethodHandle[] subscribeMethods;
+
+    private InjectionPlan(Class<?> clazz) {
+        this.clazz = clazz;
+        final MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+        final Constructor<?>[] constructors = clazz.getConstructors();
+        if (constructors.length == 0) {
+            throw new IllegalArgumentException("Class " + clazz.getSimpleName() + " doesn't declare a public constructor.");
+        }
+        final Constructor<?> constructor = constructors[0];
+        this.parameterTypes = constructor.getParameterTypes();
+        this.parameterNames = Arrays.stream(constructor.getParameters()).map(Parameter::getName).toArray(String[]::new);
+
+        try {
+            this.constructor = lookup.unreflectConstructor(constructor)
+                    .asSpreader(Object[].class, this.parameterTypes.length)
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+
+            for (Field field : clazz.getDeclaredFields()) {
+                final Provide provide = field.getAnnotation(Provide.class);
+                final Load load = field.getAnnotation(Load.class);
+                final Fill fill = field.getAnnotation(Fill.class);
+                if (provide == null && load == null && fill == null) continue;
+
+                field.setAccessible(true);
+                if (provide != null) {
+                    final String name = provide.value().equals("") ? field.getName() : provide.value();
+                    this.providedFields.add(new ProvidedField(name, getter(lookup, field)));
+                }
+                if (load != null) {
+                    final Class<?> elementType = elementType(field);
+                    this.loadedFields.add(new LoadedField(elementType == null ? field.getType() : elementType, elementType != null, setter(lookup, field)));
+                }
+                if (fill != null) {
+                    final String name = fill.value().equals("") ? field.getName() : fill.value();
+                    this.filledFields.add(new FilledField(name, field.getType().isPrimitive(), setter(lookup, field)));
+                }
+            }
+
+            final Map<Construct.Priority, List<MethodHandle>> constructMethods = new EnumMap<>(Construct.Priority.class);
+            final List<MethodHandle> destroyMethods = new ArrayList<>();
+            final List<MethodHandle> refilledMethods = new ArrayList<>();
+            final List<Class<?>> subscribedTypes = new ArrayList<>();
+            final List<MethodHandle> subscribeMethods = new ArrayList<>();
+            for (Method method : clazz.getDeclaredMethods()) {
+                final Construct construct = method.getAnnotation(Construct.class);
+                final boolean destroy = method.isAnnotationPresent(Destroy.class);
+                final boolean refilled = method.isAnnotationPresent(Refilled.class);
+                final boolean subscribe = method.isAnnotationPresent(Subscribe.class);
+                if (construct == null && !destroy && !refilled && !subscribe) continue;
+
+                method.setAccessible(true);
+                if (construct != null) {
+                    constructMethods.computeIfAbsent(construct.value(), priority -> new ArrayList<>()).add(invoker(lookup, method));
+                }
+                if (destroy) {
+                    destroyMethods.add(invoker(lookup, method));
+                }
+                if (refilled) {
+                    refilledMethods.add(invoker(lookup, method));
+                }
+                if (subscribe) {
+                    if (method.getParameterCount() != 1 || method.getParameterTypes()[0].isPrimitive()) {
+                        throw new IllegalArgumentException("@Subscribe method " + clazz.getSimpleName() + "." + method.getName() + " must declare a single event parameter.");
+                    }
+                    subscribedTypes.add(method.getParameterTypes()[0]);
+                    subscribeMethods.add(receiver(lookup, method));
+                }
+            }
+            constructMethods.forEach((priority, handles) -> this.constructMethods.put(priority, handles.toArray(MethodHandle[]::new)));
+            this.destroyMethods = destroyMethods.toArray(MethodHandle[]::new);
+            this.refilledMethods = refilledMethods.toArray(MethodHandle[]::new);
+            this.subscribedTypes = subscribedTypes.toArray(Class<?>[]::new);
+            this.subscribeMethods = subscribeMethods.toArray(MethodHandle[]::new);
+        } catch (IllegalAccessException exception) {
+            throw new InternalError("Injection plan of " + clazz.getSimpleName() + " could not be created.", exception);
+        }
+    }
+
+    public static InjectionPlan of(Class<?> clazz) {
+        return PLANS.get(clazz);
+    }
+
+    /**
+     * @return the element type of a {@link List} or {@link Collection} field, null for other fields
+     */
+    private static Class<?> elementType(Field field) {
+        if (field.getType() != List.class && field.getType() != Collection.class) return null;
+        if (!(field.getGenericType() instanceof ParameterizedType)) return null;
+
+        Type elementType = ((ParameterizedType) field.getGenericType()).getActualTypeArguments()[0];
+        if (elementType instanceof WildcardType) elementType = ((WildcardType) elementType).getUpperBounds()[0];
+        if (elementType instanceof ParameterizedType) elementType = ((ParameterizedType) elementType).getRawType();
+        return elementType instanceof Class ? (Class<?>) elementType : Object.class;
+    }
+
+    private static MethodHandle getter(MethodHandles.Lookup lookup, Field field) throws IllegalAccessException {
+        MethodHandle getter = lookup.unreflectGetter(field);
+        if (Modifier.isStatic(field.getModifiers())) {
+            getter = MethodHandles.dropArguments(getter, 0, Object.class);
+        }
+        return getter.asType(GETTER_TYPE);
+    }
+
+    private static MethodHandle setter(MethodHandles.Lookup lookup, Field field) throws IllegalAccessException {
+        MethodHandle setter = lookup.unreflectSetter(field);
+        if (Modifier.isStatic(field.getModifiers())) {
+            setter = MethodHandles.dropArguments(setter, 0, Object.class);
+        }
+        return setter.asType(SETTER_TYPE);
+    }
+
+    private static MethodHandle invoker(MethodHandles.Lookup lookup, Method method) throws IllegalAccessException {
+        MethodHandle invoker = lookup.unreflect(method);
+        if (Modifier.isStatic(method.getModifiers())) {
+            invoker = MethodHandles.dropArguments(invoker, 0, Object.class);
+        }
+        return invoker.asType(INVOKER_TYPE);
+    }
+
+    private static MethodHandle receiver(MethodHandles.Lookup lookup, Method method) throws IllegalAccessException {
+        MethodHandle receiver = lookup.unreflect(method);
+        if (Modifier.isStatic(method.getModifiers())) {
+            receiver = MethodHandles.dropArguments(receiver, 0, Object.class);
+        }
+        return receiver.asType(RECEIVER_TYPE);
+    }
+
+    @Override
+    public Class<?> getType() {
+        return this.clazz;
+    }
+
+    @Override
+    public Class<?>[] getParameterTypes() {
+        return this.parameterTypes;
+    }
+
+    @Override
+    public String[] getParameterNames() {
+        return this.parameterNames;
+    }
+
+    @Override
+    public Object instantiate(Object[] arguments) throws Throwable {
+        return (Object) this.constructor.invokeExact(arguments);
+    }
+
+    @Override
+    public void provideElements(Object instance, Context context) {
+        for (ProvidedField providedField : this.providedFields) {
+            try {
+                context.provide(providedField.name, (Object) providedField.getter.invokeExact(instance));
+            } catch (Throwable throwable) {
+                throwable.printStackTrace();
+            }
+        }
+    }
+
+    @Override
+    public void loadComponents(Object instance, Context context) {
+        for (LoadedField loadedField : this.loadedFields) {
+            final Object component = loadedField.collection ? context.getComponents(loadedField.type) : context.resolveComponent(loadedField.type);
+            set(loadedField.setter, instance, component, loadedField.type.isPrimitive());
+        }
+    }
+
+    @Override
+    public void fillElements(Object instance, Context context) {
+        for (FilledField filledField : this.filledFields) {
+            set(filledField.setter, instance, context.getProvidedElement(filledField.name), filledField.primitive);
+        }
+    }
+
+    private static void set(MethodHandle setter, Object instance, Object value, boolean primitive) {
+        if (value == null && primitive) return;
+        try {
+            setter.invokeExact(instance, value);
+        } catch (Throwable throwable) {
+            throwable.printStackTrace();
+        }
+    }
+
+    @Override
+    public Class<?>[] getLoadedTypes() {
+        return this.loadedFields.stream().filter(loadedField -> !loadedField.collection).map(loadedField -> loadedField.type).toArray(Class<?>[]::new);
+    }
+
+    @Override
+    public Class<?>[] getLoadedElementTypes() {
+        return this.loadedFields.stream().filter(loadedField -> loadedField.collection).map(loadedField -> loadedField.type).toArray(Class<?>[]::new);
+    }
+
+    @Override
+    public boolean hasConstructMethods(Construct.Priority priority) {
+        return this.constructMethods.containsKey(priority);
+    }
+
+    @Override
+    public void construct(Object instance, Construct.Priority priority) throws Throwable {
+        invokeAll(this.constructMethods.getOrDefault(priority, NO_HANDLES), instance);
+    }
+
+    @Override
+    public String[] getFilledNames() {
+        return this.filledFields.stream().map(filledField -> filledField.name).distinct().toArray(String[]::new);
+    }
+
+    @Override
+    public void fillElement(Object instance, String name, Object element) {
+        for (FilledField filledField : this.filledFields) {
+            if (filledField.name.equals(name)) set(filledField.setter, instance, element, filledField.primitive);
+        }
+    }
+
+    @Override
+    public boolean hasDestroyMethods() {
+        return this.destroyMethods.length != 0;
+    }
+
+    @Override
+    public void destroy(Object instance) throws Throwable {
+        invokeAll(this.destroyMethods, instance);
+    }
+
+    @Override
+    public boolean hasRefilledMethods() {
+        return this.refilledMethods.length != 0;
+    }
+
+    @Override
+    public void refilled(Object instance) throws Throwable {
+        invokeAll(this.refilledMethods, instance);
+    }
+
+    @Override
+    public Class<?>[] getSubscribedTypes() {
+        return this.subscribedTypes;
+    }
+
+    @Override
+    public void receive(Object instance, int subscription, Object event) throws Throwable {
+        this.subscribeMethods[subscription].invokeExact(instance, event);
+    }
+
+    private static void invokeAll(MethodHandle[] methods, Object instance) throws Throwable {
+        Throwable failure = null;
+        for (MethodHandle method : methods) {
+            try {
+                method.invokeExact(instance);
+            } catch (Throwable throwable) {
+                if (failure == null) failure = throwable;
+                else failure.addSuppressed(throwable);
+            }
+        }
+        if (failure != null) throw failure;
+    }
+
+    private static class ProvidedField {
+
+        private final String name;
+        private final MethodHandle getter;
+
+        private ProvidedField(String name, MethodHandle getter) {
+            this.name = name;
+            this.getter = getter;
+        }
+    }
+
+    private static class LoadedField {
+
+        private final Class<?> type;
+        private final boolean collection;
+        private final MethodHandle setter;
+
+        /**
+         * @param type the element type if the field is a collection
+         */
+        private LoadedField(Class<?> type, boolean collection, MethodHandle setter) {
+            this.type = type;
+            this.collection = collection;
+            this.setter = setter;
+        }
+    }
+
+    private static class FilledField {
+
+        private final String name;
+        private final boolean primitive;
+        private final MethodHandle setter;
+
+        private FilledField(String name, boolean primitive, MethodHandle setter) {
+            this.name = name;
+            this.primitive = primitive;
+            this.setter = setter;
+        }
+    }
+}
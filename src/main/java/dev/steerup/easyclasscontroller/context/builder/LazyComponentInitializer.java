@@ -0,0 +1,73 @@
+package dev.steerup.easyclasscontroller.context.builder;
+
+import dev.steerup.easyclasscontroller.annotations.method.Construct;
+import dev.steerup.easyclasscontroller.context.Context;
+import dev.steerup.easyclasscontroller.context.factory.ComponentDefinition;
+
+/**
+ * Runs all phases of the {@link ContextBuilder} for a single lazy, prototype or pooled component once it is requested.
+ * Prototype and pooled instances neither provide their elements, they would overwrite each other, nor are they destroyed with the context.
+ */
+class LazyComponentInitializer implements Context.LazyInitializer {
+
+    private final ComponentDefinition definition;
+    private final Context context;
+    private final boolean singleton;
+
+    LazyComponentInitializer(ComponentDefinition definition, Context context, boolean singleton) {
+        this.definition = definition;
+        this.context = context;
+        this.singleton = singleton;
+    }
+
+    @Override
+    public Object instantiate() {
+        final Class<?>[] parameterTypes = this.definition.getParameterTypes();
+        final String[] parameterNames = this.definition.getParameterNames();
+        final Object[] arguments = new Object[parameterTypes.length];
+
+        for (int i = 0; i < parameterTypes.length; i++) {
+            Object argument = this.context.resolveComponent(parameterTypes[i]);
+            if (argument == null) argument = this.context.getProvidedElement(parameterNames[i]);
+            if (argument == null) argument = this.context.getProvidedElementByType(parameterTypes[i]);
+            if (argument == null) {
+                throw new IllegalArgumentException("Classes could not be instantiated: " + DependencyGraph.describe(this.definition));
+            }
+            arguments[i] = argument;
+        }
+
+        try {
+            return this.definition.instantiate(arguments);
+        } catch (Throwable throwable) {
+            throwable.printStackTrace();
+            throw new InternalError("Class " + this.definition.getType().getSimpleName() + " could not be instantiated.");
+        }
+    }
+
+    @Override
+    public void initialize(Object instance) {
+        this.definition.loadComponents(instance, this.context);
+        this.definition.fillElements(instance, this.context);
+    }
+
+    /**
+     * Provides the elements only now, the context can't be written while the component is initialized.
+     */
+    @Override
+    public void complete(Object instance) {
+        if (this.singleton) this.definition.provideElements(instance, this.context);
+        for (Construct.Priority priority : Construct.Priority.values()) {
+            if (!this.definition.hasConstructMethods(priority)) continue;
+            try {
+                this.definition.construct(instance, priority);
+            } catch (Throwable throwable) {
+                throwable.printStackTrace();
+            }
+        }
+        if (this.singleton) {
+            ContextBuilder.registerDestroyer(this.definition, instance, this.context);
+            ContextBuilder.registerRefillers(this.definition, instance, this.context);
+            ContextBuilder.registerSubscribers(this.definition, instance, this.context);
+        }
+    }
+}
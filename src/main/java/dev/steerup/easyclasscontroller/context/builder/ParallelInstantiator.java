@@ -0,0 +1,137 @@
+package dev.steerup.easyclasscontroller.context.builder;
+
+import dev.steerup.easyclasscontroller.context.factory.ComponentDefinition;
+import dev.steerup.easyclasscontroller.context.metrics.BootstrapListener;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.Collectors;
+
+/**
+ * Instantiates the components of a {@link DependencyGraph} on an {@link Executor}.
+ * A component is submitted as soon as the last of its dependencies has been created,
+ * components depending on a failed one are skipped and all failures are reported together.
+ */
+class ParallelInstantiator {
+
+    private final DependencyGraph graph;
+    private final Executor executor;
+    private final BootstrapListener listener;
+    private final Object[] instances;
+    private final AtomicIntegerArray inDegrees;
+    private final AtomicIntegerArray skipped;
+    private final CountDownLatch remaining;
+    private final Queue<Failure> failures = new ConcurrentLinkedQueue<>();
+
+    private ParallelInstantiator(DependencyGraph graph, Executor executor, BootstrapListener listener) {
+        this.graph = graph;
+        this.executor = executor;
+        this.listener = listener;
+        this.instances = new Object[graph.size()];
+        this.inDegrees = new AtomicIntegerArray(graph.inDegrees());
+        this.skipped = new AtomicIntegerArray(graph.size());
+        this.remaining = new CountDownLatch(graph.size());
+    }
+
+    /**
+     * @return the instances by index of their definition in the graph
+     */
+    static Object[] instantiate(DependencyGraph graph, Executor executor, BootstrapListener listener) {
+        return new ParallelInstantiator(graph, executor, listener).start();
+    }
+
+    private Object[] start() {
+        final int[] inDegrees = this.graph.inDegrees();
+        for (int i = 0; i < inDegrees.length; i++) {
+            if (inDegrees[i] == 0) this.submit(i);
+        }
+
+        try {
+            this.remaining.await();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new InternalError("Interrupted while instantiating components.", exception);
+        }
+
+        if (!this.failures.isEmpty()) {
+            final List<Failure> failures = List.copyOf(this.failures);
+            final InternalError error = new InternalError("Classes could not be instantiated: " + failures.stream()
+                    .map(failure -> failure.definition.getType().getSimpleName())
+                    .collect(Collectors.joining(", ")));
+            failures.forEach(failure -> error.addSuppressed(failure.throwable));
+            throw error;
+        }
+        return this.instances;
+    }
+
+    private void submit(int index) {
+        try {
+            this.executor.execute(() -> this.instantiate(index));
+        } catch (RejectedExecutionException exception) {
+            this.fail(index, exception);
+        }
+    }
+
+    private void instantiate(int index) {
+        final ComponentDefinition definition = this.graph.getDefinition(index);
+        final long start = System.nanoTime();
+        try {
+            this.instances[index] = definition.instantiate(this.graph.arguments(index, this.instances));
+        } catch (Throwable throwable) {
+            this.fail(index, throwable);
+            return;
+        }
+        this.listener.componentInstantiated(definition.getType(), Duration.ofNanos(System.nanoTime() - start));
+        this.complete(index);
+    }
+
+    private void fail(int index, Throwable throwable) {
+        this.failures.add(new Failure(this.graph.getDefinition(index), throwable));
+        this.skipped.set(index, 1);
+        this.complete(index);
+    }
+
+    /**
+     * Releases the dependants of a component. Dependants of skipped components are skipped
+     * in place, iteratively, so long failed chains don't overflow the stack.
+     */
+    private void complete(int index) {
+        final Deque<Integer> completed = new ArrayDeque<>();
+        completed.push(index);
+
+        while (!completed.isEmpty()) {
+            final int current = completed.pop();
+            final boolean skipped = this.skipped.get(current) == 1;
+            for (int dependant : this.graph.getDependants(current)) {
+                if (skipped) this.skipped.set(dependant, 1);
+                if (this.inDegrees.decrementAndGet(dependant) == 0) {
+                    if (this.skipped.get(dependant) == 1) {
+                        completed.push(dependant);
+                    } else {
+                        this.submit(dependant);
+                    }
+                }
+            }
+            this.remaining.countDown();
+        }
+    }
+
+    private static class Failure {
+
+        private final ComponentDefinition definition;
+        private final Throwable throwable;
+
+        private Failure(ComponentDefinition definition, Throwable throwable) {
+            this.definition = definition;
+            this.throwable = throwable;
+        }
+    }
+}
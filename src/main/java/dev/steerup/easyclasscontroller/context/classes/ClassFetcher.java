@@ -1,16 +1,30 @@
 package dev.steerup.easyclasscontroller.context.classes;
 
+import dev.steerup.easyclasscontroller.context.metrics.BootstrapListener;
+
 import java.io.IOException;
 import java.util.List;
+import java.util.Optional;
 import java.util.function.Consumer;
 
 public class ClassFetcher {
 
     public static void fetch(Class<?> baseClass, String path, Consumer<List<Class<?>>> classesFetchedConsumer) throws IOException, ClassNotFoundException {
-        try {
-            JarClassFetcher.fetch(baseClass, path, classesFetchedConsumer);
-        } catch (IOException exception) {
-            SourceClassFetcher.fetch(path, classesFetchedConsumer);
+        fetch(baseClass, path, classesFetchedConsumer, BootstrapListener.NONE, Optional.empty());
+    }
+
+    /**
+     * @param listener  told how many classes have been scanned and how many of them were loaded
+     * @param scanCache if present, jars without an index are only scanned again once they changed
+     * @throws IOException if the code source of the base class is a jar which can't be read, it isn't walked as a directory then
+     */
+    public static void fetch(Class<?> baseClass, String path, Consumer<List<Class<?>>> classesFetchedConsumer, BootstrapListener listener, Optional<ScanCache> scanCache) throws IOException, ClassNotFoundException {
+        if (IndexClassFetcher.fetch(baseClass, path, classesFetchedConsumer, listener)) {
+            return;
+        }
+
+        if (!JarClassFetcher.fetch(baseClass, path, classesFetchedConsumer, listener, scanCache)) {
+            SourceClassFetcher.fetch(path, classesFetchedConsumer, listener);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,220 @@
+package dev.steerup.easyclasscontroller.context.classes;
+
+import dev.steerup.easyclasscontroller.annotations.type.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads the constant pool and the class level {@code RuntimeVisibleAnnotations} attribute
+ * straight from class file bytes, so classes can be checked for {@link Component}
+ * without being loaded or initialized.
+ */
+public class ClassFileScanner {
+
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final byte[] COMPONENT_DESCRIPTOR = descriptorOf(Component.class.getName());
+    private static final byte[] RUNTIME_VISIBLE_ANNOTATIONS = "RuntimeVisibleAnnotations".getBytes(StandardCharsets.UTF_8);
+
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_INTEGER = 3;
+    private static final int CONSTANT_FLOAT = 4;
+    private static final int CONSTANT_LONG = 5;
+    private static final int CONSTANT_DOUBLE = 6;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_STRING = 8;
+    private static final int CONSTANT_FIELD_REF = 9;
+    private static final int CONSTANT_METHOD_REF = 10;
+    private static final int CONSTANT_INTERFACE_METHOD_REF = 11;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+    private static final int CONSTANT_METHOD_HANDLE = 15;
+    private static final int CONSTANT_METHOD_TYPE = 16;
+    private static final int CONSTANT_DYNAMIC = 17;
+    private static final int CONSTANT_INVOKE_DYNAMIC = 18;
+    private static final int CONSTANT_MODULE = 19;
+    private static final int CONSTANT_PACKAGE = 20;
+
+    private final byte[] bytes;
+    private int position;
+    private int[] utf8Offsets;
+
+    private ClassFileScanner(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    /**
+     * @throws IOException if the bytes aren't a class file or use a constant pool tag this scanner doesn't know
+     */
+    public static boolean isComponent(byte[] classBytes) throws IOException {
+        try {
+            return new ClassFileScanner(classBytes).hasClassAnnotation(COMPONENT_DESCRIPTOR);
+        } catch (ArrayIndexOutOfBoundsException | IllegalArgumentException exception) {
+            throw new IOException("Class file could not be parsed.", exception);
+        }
+    }
+
+    private boolean hasClassAnnotation(byte[] descriptor) {
+        if (this.readInt() != MAGIC) {
+            throw new IllegalArgumentException("Not a class file.");
+        }
+        this.position += 4;
+
+        if (!this.readConstantPool(descriptor)) return false;
+
+        this.position += 6;
+        int interfacesCount = this.readUnsignedShort();
+        this.position += interfacesCount * 2;
+        this.skipMembers();
+        this.skipMembers();
+
+        int attributesCount = this.readUnsignedShort();
+        for (int i = 0; i < attributesCount; i++) {
+            int nameIndex = this.readUnsignedShort();
+            int length = this.readInt();
+            int end = this.position + length;
+            if (this.utf8Equals(nameIndex, RUNTIME_VISIBLE_ANNOTATIONS) && this.containsAnnotation(descriptor)) {
+                return true;
+            }
+            this.position = end;
+        }
+        return false;
+    }
+
+    /**
+     * Records the offset of every utf8 constant and returns whether the descriptor occurs at all.
+     * Classes which never mention the descriptor are rejected before their members are walked.
+     */
+    private boolean readConstantPool(byte[] descriptor) {
+        int count = this.readUnsignedShort();
+        this.utf8Offsets = new int[count];
+        boolean descriptorFound = false;
+
+        for (int index = 1; index < count; index++) {
+            int tag = this.bytes[this.position++];
+            switch (tag) {
+                case CONSTANT_UTF8:
+                    this.utf8Offsets[index] = this.position;
+                    descriptorFound |= this.utf8Equals(index, descriptor);
+                    this.position += 2 + this.readUnsignedShort(this.position);
+                    break;
+                case CONSTANT_LONG:
+                case CONSTANT_DOUBLE:
+                    this.position += 8;
+                    index++;
+                    break;
+                case CONSTANT_INTEGER:
+                case CONSTANT_FLOAT:
+                case CONSTANT_FIELD_REF:
+                case CONSTANT_METHOD_REF:
+                case CONSTANT_INTERFACE_METHOD_REF:
+                case CONSTANT_NAME_AND_TYPE:
+                case CONSTANT_DYNAMIC:
+                case CONSTANT_INVOKE_DYNAMIC:
+                    this.position += 4;
+                    break;
+                case CONSTANT_METHOD_HANDLE:
+                    this.position += 3;
+                    break;
+                case CONSTANT_CLASS:
+                case CONSTANT_STRING:
+                case CONSTANT_METHOD_TYPE:
+                case CONSTANT_MODULE:
+                case CONSTANT_PACKAGE:
+                    this.position += 2;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown constant pool tag " + tag);
+            }
+        }
+        return descriptorFound;
+    }
+
+    private void skipMembers() {
+        int membersCount = this.readUnsignedShort();
+        for (int i = 0; i < membersCount; i++) {
+            this.position += 6;
+            int attributesCount = this.readUnsignedShort();
+            for (int j = 0; j < attributesCount; j++) {
+                this.position += 2;
+                int length = this.readInt();
+                this.position += length;
+            }
+        }
+    }
+
+    private boolean containsAnnotation(byte[] descriptor) {
+        int annotationsCount = this.readUnsignedShort();
+        for (int i = 0; i < annotationsCount; i++) {
+            if (this.utf8Equals(this.readUnsignedShort(), descriptor)) {
+                return true;
+            }
+            this.skipElementValuePairs();
+        }
+        return false;
+    }
+
+    private void skipElementValuePairs() {
+        int pairsCount = this.readUnsignedShort();
+        for (int i = 0; i < pairsCount; i++) {
+            this.position += 2;
+            this.skipElementValue();
+        }
+    }
+
+    private void skipElementValue() {
+        int tag = this.bytes[this.position++];
+        switch (tag) {
+            case 'e':
+                this.position += 4;
+                break;
+            case '@':
+                this.position += 2;
+                this.skipElementValuePairs();
+                break;
+            case '[':
+                int valuesCount = this.readUnsignedShort();
+                for (int i = 0; i < valuesCount; i++) {
+                    this.skipElementValue();
+                }
+                break;
+            default:
+                this.position += 2;
+                break;
+        }
+    }
+
+    private boolean utf8Equals(int index, byte[] expected) {
+        int offset = this.utf8Offsets[index];
+        if (offset == 0) return false;
+        if (this.readUnsignedShort(offset) != expected.length) return false;
+
+        int start = offset + 2;
+        for (int i = 0; i < expected.length; i++) {
+            if (this.bytes[start + i] != expected[i]) return false;
+        }
+        return true;
+    }
+
+    private int readUnsignedShort() {
+        int value = this.readUnsignedShort(this.position);
+        this.position += 2;
+        return value;
+    }
+
+    private int readUnsignedShort(int offset) {
+        return ((this.bytes[offset] & 0xFF) << 8) | (this.bytes[offset + 1] & 0xFF);
+    }
+
+    private int readInt() {
+        int value = ((this.bytes[this.position] & 0xFF) << 24)
+                | ((this.bytes[this.position + 1] & 0xFF) << 16)
+                | ((this.bytes[this.position + 2] & 0xFF) << 8)
+                | (this.bytes[this.position + 3] & 0xFF);
+        this.position += 4;
+        return value;
+    }
+
+    private static byte[] descriptorOf(String className) {
+        return ("L" + className.replace('.', '/') + ";").getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,188 @@
+package dev.steerup.easyclasscontroller.context.classes;
+
+import dev.steerup.easyclasscontroller.context.metrics.BootstrapListener;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Scans every classpath root instead of only the code source of the base class: the roots the context class loader
+ * finds the package in, the urls of its class loader hierarchy and the {@code java.class.path}.
+ * Jars nested in a jar root, like the libraries of a fat jar, are scanned as well. Roots are scanned concurrently,
+ * roots with a component index are read instead of scanned, and classes found in several roots are only loaded once.
+ * Roots which can't be read are reported to the listener and skipped.
+ */
+public class ClasspathClassFetcher {
+
+    private static final List<String> CLASS_ROOTS = List.of("", "BOOT-INF/classes/", "WEB-INF/classes/");
+
+    private final ClassLoader classLoader;
+    private final Optional<List<Path>> roots;
+    private final Consumer<List<Class<?>>> classesFetchedConsumer;
+    private final List<Class<?>> classes = new ArrayList<>();
+    private final String path;
+    private final String prefix;
+    private final BootstrapListener listener;
+
+    private ClasspathClassFetcher(ClassLoader classLoader, Optional<List<Path>> roots, String path, Consumer<List<Class<?>>> classesFetchedConsumer, BootstrapListener listener) {
+        this.classLoader = classLoader;
+        this.roots = roots;
+        this.classesFetchedConsumer = classesFetchedConsumer;
+        this.path = path;
+        this.prefix = path.isEmpty() ? "" : path.replace('.', '/') + "/";
+        this.listener = listener;
+    }
+
+    public static void fetch(String path, Consumer<List<Class<?>>> classesFetchedConsumer, BootstrapListener listener) throws IOException {
+        new ClasspathClassFetcher(Thread.currentThread().getContextClassLoader(), Optional.empty(), path, classesFetchedConsumer, listener).start();
+    }
+
+    /**
+     * Scans only the given roots and loads the components with the given class loader, e.g. the one created for these roots.
+     */
+    public static void fetch(List<Path> roots, ClassLoader classLoader, String path, Consumer<List<Class<?>>> classesFetchedConsumer, BootstrapListener listener) throws IOException {
+        new ClasspathClassFetcher(classLoader, Optional.of(roots), path, classesFetchedConsumer, listener).start();
+    }
+
+    public void start() throws IOException {
+        final Set<Path> roots = this.roots.isPresent() ? new LinkedHashSet<>(this.roots.get()) : this.findRoots();
+        final List<RootScan> scans = roots.parallelStream()
+                .map(this::scan)
+                .collect(Collectors.toList());
+
+        final Set<String> classNames = new LinkedHashSet<>();
+        int scannedClasses = 0;
+        for (RootScan scan : scans) {
+            classNames.addAll(scan.classNames);
+            scannedClasses += scan.scannedClasses;
+        }
+
+        for (String className : classNames) {
+            try {
+                this.classes.add(this.classLoader.loadClass(className));
+            } catch (ClassNotFoundException e) {
+                e.printStackTrace();
+            }
+        }
+        this.listener.classesScanned(scannedClasses, this.classes.size());
+        this.classesFetchedConsumer.accept(this.classes);
+    }
+
+    private Set<Path> findRoots() throws IOException {
+        final Set<Path> roots = new LinkedHashSet<>();
+
+        final Enumeration<URL> resources = this.classLoader.getResources(this.prefix.isEmpty() ? "" : this.prefix.substring(0, this.prefix.length() - 1));
+        while (resources.hasMoreElements()) {
+            this.toRoot(resources.nextElement()).ifPresent(roots::add);
+        }
+
+        for (ClassLoader loader = this.classLoader; loader != null; loader = loader.getParent()) {
+            if (!(loader instanceof URLClassLoader)) continue;
+            for (URL url : ((URLClassLoader) loader).getURLs()) {
+                toPath(url).ifPresent(roots::add);
+            }
+        }
+
+        for (String entry : System.getProperty("java.class.path", "").split(File.pathSeparator)) {
+            if (!entry.isEmpty()) roots.add(Paths.get(entry).toAbsolutePath().normalize());
+        }
+
+        return roots.stream().filter(Files::exists).collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    /**
+     * Strips the package from a directory url, or the entry from a jar url.
+     * Both {@code jar:file:/app.jar!/...} and nested urls like {@code jar:nested:/app.jar/!BOOT-INF/...} resolve to the outer jar.
+     */
+    private Optional<Path> toRoot(URL url) {
+        if (url.getProtocol().equals("jar")) {
+            final String file = url.getPath();
+            final int separator = file.indexOf("!/");
+            String archive = separator == -1 ? file : file.substring(0, separator);
+            if (archive.startsWith("nested:")) {
+                archive = archive.substring("nested:".length());
+                if (archive.endsWith("/")) archive = archive.substring(0, archive.length() - 1);
+                return Optional.of(Paths.get(URLDecoder.decode(archive, StandardCharsets.UTF_8)).toAbsolutePath().normalize());
+            }
+            try {
+                return toPath(new URL(archive));
+            } catch (IOException exception) {
+                return Optional.empty();
+            }
+        }
+
+        Optional<Path> directory = toPath(url);
+        for (int i = 0; directory.isPresent() && i < this.prefix.split("/").length && !this.prefix.isEmpty(); i++) {
+            directory = Optional.ofNullable(directory.get().getParent());
+        }
+        return directory;
+    }
+
+    private static Optional<Path> toPath(URL url) {
+        if (!url.getProtocol().equals("file")) return Optional.empty();
+        try {
+            return Optional.of(Paths.get(url.toURI()).toAbsolutePath().normalize());
+        } catch (URISyntaxException | IllegalArgumentException | FileSystemNotFoundException exception) {
+            return Optional.empty();
+        }
+    }
+
+    private RootScan scan(Path root) {
+        try {
+            final Optional<List<String>> index = IndexClassFetcher.readIndex(root.toUri().toURL());
+            if (index.isPresent()) {
+                final List<String> classNames = index.get().stream()
+                        .filter(className -> ScanHistory.contains(this.path, className))
+                        .collect(Collectors.toList());
+                return new RootScan(classNames, classNames.size());
+            }
+
+            if (Files.isDirectory(root)) {
+                final DirectoryScanner scanner = new DirectoryScanner(root);
+                final List<String> classNames = scanner.findComponents(this.prefix);
+                return new RootScan(classNames, scanner.getScannedClasses());
+            }
+
+            try (MappedJar jar = MappedJar.open(root)) {
+                final List<String> classNames = new ArrayList<>(jar.findComponents(CLASS_ROOTS, this.prefix));
+                int scannedClasses = jar.getScannedClasses();
+                for (MappedJar nestedJar : jar.findNestedJars()) {
+                    classNames.addAll(nestedJar.findComponents(this.prefix));
+                    scannedClasses += nestedJar.getScannedClasses();
+                }
+                return new RootScan(classNames, scannedClasses);
+            }
+        } catch (IOException exception) {
+            this.listener.scanFailed(root, exception);
+            return new RootScan(List.of(), 0);
+        }
+    }
+
+    private static class RootScan {
+
+        private final List<String> classNames;
+        private final int scannedClasses;
+
+        private RootScan(List<String> classNames, int scannedClasses) {
+            this.classNames = classNames;
+            this.scannedClasses = scannedClasses;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package dev.steerup.easyclasscontroller.context.classes;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Finds the components in a directory of class files without loading them. Works on any {@link java.nio.file.FileSystem},
+ * e.g. exploded build output, the {@code jrt:} image or an opened zip. Every directory is listed by its own fork join task,
+ * so subdirectories are walked in parallel, and only files ending in {@code .class} are read.
+ */
+class DirectoryScanner {
+
+    private final Path root;
+    private final AtomicInteger scannedClasses = new AtomicInteger();
+
+    DirectoryScanner(Path root) {
+        this.root = root;
+    }
+
+    /**
+     * @param prefix the package directory, e.g. {@code dev/steerup/}
+     * @return the names of all components below the prefix, sorted
+     */
+    List<String> findComponents(String prefix) throws IOException {
+        final Path directory = prefix.isEmpty() ? this.root : this.root.resolve(prefix);
+        if (!Files.isDirectory(directory)) return List.of();
+
+        final List<String> classNames;
+        try {
+            classNames = ForkJoinPool.commonPool().invoke(new DirectoryTask(directory));
+        } catch (UncheckedIOException exception) {
+            throw exception.getCause();
+        }
+        Collections.sort(classNames);
+        return classNames;
+    }
+
+    int getScannedClasses() {
+        return this.scannedClasses.get();
+    }
+
+    private String className(Path classFile) {
+        final String relativePath = this.root.relativize(classFile).toString();
+        final String separator = classFile.getFileSystem().getSeparator();
+        return relativePath.substring(0, relativePath.length() - ".class".length()).replace(separator, ".");
+    }
+
+    private static boolean isComponent(Path classFile) throws IOException {
+        try {
+            return ClassFileScanner.isComponent(Files.readAllBytes(classFile));
+        } catch (IOException exception) {
+            throw new IOException(classFile + " could not be scanned.", exception);
+        }
+    }
+
+    private class DirectoryTask extends RecursiveTask<List<String>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Path directory;
+
+        private DirectoryTask(Path directory) {
+            this.directory = directory;
+        }
+
+        @Override
+        protected List<String> compute() {
+            final List<DirectoryTask> subdirectories = new ArrayList<>();
+            final List<String> classNames = new ArrayList<>();
+
+            try {
+                Files.walkFileTree(this.directory, EnumSet.noneOf(FileVisitOption.class), 1, new SimpleFileVisitor<>() {
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                        if (attributes.isDirectory()) {
+                            final DirectoryTask task = new DirectoryTask(file);
+                            task.fork();
+                            subdirectories.add(task);
+                        } else if (attributes.isRegularFile() && file.getFileName().toString().endsWith(".class")) {
+                            scannedClasses.incrementAndGet();
+                            if (isComponent(file)) {
+                                classNames.add(className(file));
+                            }
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+
+            for (DirectoryTask subdirectory : subdirectories) {
+                classNames.addAll(subdirectory.join());
+            }
+            return classNames;
+        }
+    }
+}
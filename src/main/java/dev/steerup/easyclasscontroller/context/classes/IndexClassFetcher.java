@@ -0,0 +1,106 @@
+package dev.steerup.easyclasscontroller.context.classes;
+
+import dev.steerup.easyclasscontroller.context.metrics.BootstrapListener;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+
+/**
+ * Loads the components listed in the index written by the
+ * {@link dev.steerup.easyclasscontroller.processor.ComponentProcessor} instead of scanning the code source.
+ */
+public class IndexClassFetcher {
+
+    public static final String INDEX_LOCATION = "META-INF/easyclasscontroller/components.index";
+
+    private final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+    private final Consumer<List<Class<?>>> classesFetchedConsumer;
+    private final List<Class<?>> classes = new ArrayList<>();
+    private final Class<?> baseClass;
+    private final String path;
+    private final BootstrapListener listener;
+
+    private IndexClassFetcher(Class<?> baseClass, String path, Consumer<List<Class<?>>> classesFetchedConsumer, BootstrapListener listener) {
+        this.classesFetchedConsumer = classesFetchedConsumer;
+        this.baseClass = baseClass;
+        this.path = path;
+        this.listener = listener;
+    }
+
+    /**
+     * @return whether the code source of the base class contains an index
+     */
+    public static boolean fetch(Class<?> baseClass, String path, Consumer<List<Class<?>>> classesFetchedConsumer) throws IOException, ClassNotFoundException {
+        return fetch(baseClass, path, classesFetchedConsumer, BootstrapListener.NONE);
+    }
+
+    /**
+     * @return whether the code source of the base class contains an index
+     */
+    public static boolean fetch(Class<?> baseClass, String path, Consumer<List<Class<?>>> classesFetchedConsumer, BootstrapListener listener) throws IOException, ClassNotFoundException {
+        return new IndexClassFetcher(baseClass, path, classesFetchedConsumer, listener).start();
+    }
+
+    public static Optional<List<String>> readIndex(URL location) throws IOException {
+        final Path codeSource;
+        try {
+            codeSource = Paths.get(location.toURI());
+        } catch (URISyntaxException | IllegalArgumentException exception) {
+            return Optional.empty();
+        }
+
+        if (Files.isDirectory(codeSource)) {
+            Path index = codeSource.resolve(INDEX_LOCATION);
+            if (!Files.isRegularFile(index)) return Optional.empty();
+            try (InputStream inputStream = Files.newInputStream(index)) {
+                return Optional.of(readLines(inputStream));
+            }
+        }
+
+        if (!Files.isRegularFile(codeSource)) return Optional.empty();
+        try (JarFile jarFile = new JarFile(codeSource.toFile())) {
+            JarEntry entry = jarFile.getJarEntry(INDEX_LOCATION);
+            if (entry == null) return Optional.empty();
+            try (InputStream inputStream = jarFile.getInputStream(entry)) {
+                return Optional.of(readLines(inputStream));
+            }
+        }
+    }
+
+    private static List<String> readLines(InputStream inputStream) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        return reader.lines()
+                .map(String::trim)
+                .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                .collect(Collectors.toList());
+    }
+
+    public boolean start() throws IOException, ClassNotFoundException {
+        URL location = this.baseClass.getProtectionDomain().getCodeSource().getLocation();
+        Optional<List<String>> index = readIndex(location);
+        if (index.isEmpty()) return false;
+
+        for (String className : index.get()) {
+            if (!ScanHistory.contains(this.path, className)) continue;
+            this.classes.add(this.classLoader.loadClass(className));
+        }
+        this.listener.classesScanned(this.classes.size(), this.classes.size());
+        classesFetchedConsumer.accept(this.classes);
+        return true;
+    }
+}
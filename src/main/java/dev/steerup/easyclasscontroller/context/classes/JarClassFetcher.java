@@ -9,8 +9,16 @@
 
 package dev.steerup.easyclasscontroller.context.classes;
 
+import dev.steerup.easyclasscontroller.context.metrics.BootstrapListener;
+
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
 import java.util.function.Consumer;
 import java.util.jar.JarEntry;
@@ -18,48 +26,134 @@ import java.util.jar.JarFile;
 
 public class JarClassFetcher {
 
-    private static final int BUFFER_SIZE = 4096;
-
     private final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
-    private final Map<String, byte[]> classBytesMap = new HashMap<>();
     private final Consumer<List<Class<?>>> classesFetchedConsumer;
     private final List<Class<?>> classes = new ArrayList<>();
+    private final List<String> classNames = new ArrayList<>();
     private final Class<?> baseClass;
     private final String path;
+    private final String prefix;
+    private final BootstrapListener listener;
+    private final Optional<ScanCache> scanCache;
 
-    private JarClassFetcher(Class<?> baseClass, String path, Consumer<List<Class<?>>> classesFetchedConsumer) {
+    private int scannedClasses;
+
+    private JarClassFetcher(Class<?> baseClass, String path, Consumer<List<Class<?>>> classesFetchedConsumer, BootstrapListener listener, Optional<ScanCache> scanCache) {
         this.classesFetchedConsumer = classesFetchedConsumer;
         this.baseClass = baseClass;
         this.path = path;
+        this.prefix = path.isEmpty() ? "" : path.replace('.', '/') + "/";
+        this.listener = listener;
+        this.scanCache = scanCache;
     }
 
-    public static void fetch(Class<?> baseClass, String path, Consumer<List<Class<?>>> classesFetchedConsumer) throws IOException {
-        new JarClassFetcher(baseClass, path, classesFetchedConsumer).start();
+    /**
+     * @return whether the code source of the base class is a jar
+     */
+    public static boolean fetch(Class<?> baseClass, String path, Consumer<List<Class<?>>> classesFetchedConsumer) throws IOException {
+        return fetch(baseClass, path, classesFetchedConsumer, BootstrapListener.NONE, Optional.empty());
     }
 
-    public void start() throws IOException {
-        URL location = this.baseClass.getProtectionDomain().getCodeSource().getLocation();
-        JarFile jarFile = new JarFile(location.getPath());
-        loadClasses(jarFile);
-        classesFetchedConsumer.accept(this.classes);
+    /**
+     * @param scanCache if present, the component class names are taken from it as long as the jar didn't change
+     * @return whether the code source of the base class is a jar
+     * @throws IOException if the code source is a jar, but can't be read
+     */
+    public static boolean fetch(Class<?> baseClass, String path, Consumer<List<Class<?>>> classesFetchedConsumer, BootstrapListener listener, Optional<ScanCache> scanCache) throws IOException {
+        return new JarClassFetcher(baseClass, path, classesFetchedConsumer, listener, scanCache).start();
     }
 
-    private void loadClasses(JarFile jarFile) {
-        Enumeration<JarEntry> entries = jarFile.entries();
-        String s = this.path.replaceAll("[.]", "/");
-        while (entries.hasMoreElements()) {
-            JarEntry jarEntry = entries.nextElement();
-            String name = jarEntry.getName();
-            if (!name.endsWith(".class")) continue;
-            if (!name.startsWith(s)) continue;
+    /**
+     * Jars the mapped scanner can't read are reported to the listener and read entry by entry instead.
+     */
+    public boolean start() throws IOException {
+        Optional<Path> codeSource = this.codeSource();
+        if (codeSource.isEmpty() || !Files.isRegularFile(codeSource.get())) return false;
+        Path jar = codeSource.get();
 
-            String className = name.replace(".class", "").replaceAll("/", ".");
+        if (Files.size(jar) > Integer.MAX_VALUE) {
+            this.scanJarFile(jar);
+        } else {
             try {
-                Class<?> clazz = classLoader.loadClass(className);
-                this.classes.add(clazz);
-            } catch (ClassNotFoundException e) {
-                e.printStackTrace();
+                this.scanMappedJar(jar);
+            } catch (IOException exception) {
+                this.listener.scanFailed(jar, exception);
+                this.classNames.clear();
+                this.scanJarFile(jar);
+            }
+        }
+
+        this.classNames.forEach(this::loadClass);
+        this.listener.classesScanned(this.scannedClasses, this.classes.size());
+        classesFetchedConsumer.accept(this.classes);
+        return true;
+    }
+
+    private Optional<Path> codeSource() {
+        URL location = this.baseClass.getProtectionDomain().getCodeSource().getLocation();
+        try {
+            return Optional.of(Paths.get(location.toURI()));
+        } catch (URISyntaxException | IllegalArgumentException | FileSystemNotFoundException exception) {
+            return Optional.empty();
+        }
+    }
+
+    private void scanMappedJar(Path jar) throws IOException {
+        try (MappedJar mappedJar = MappedJar.open(jar)) {
+            if (this.scanCache.isEmpty()) {
+                this.scan(mappedJar);
+                return;
             }
+            byte[] contentHash = ScanCache.contentHash(mappedJar.centralDirectory());
+            Optional<List<String>> cachedClassNames = this.scanCache.get().read(jar, this.path, contentHash);
+            if (cachedClassNames.isPresent()) {
+                this.classNames.addAll(cachedClassNames.get());
+            } else {
+                this.scan(mappedJar);
+                this.scanCache.get().write(jar, this.path, contentHash, this.classNames);
+            }
+        }
+    }
+
+    private void scan(MappedJar mappedJar) throws IOException {
+        this.classNames.addAll(mappedJar.findComponents(this.prefix));
+        this.scannedClasses = mappedJar.getScannedClasses();
+    }
+
+    /**
+     * Jars too large to be mapped at once, or which the mapped scanner can't read, are read entry by entry.
+     */
+    private void scanJarFile(Path jar) throws IOException {
+        this.scannedClasses = 0;
+        try (JarFile jarFile = new JarFile(jar.toFile())) {
+            Enumeration<JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements()) {
+                JarEntry jarEntry = entries.nextElement();
+                String name = jarEntry.getName();
+                if (!name.endsWith(".class")) continue;
+                if (!name.startsWith(this.prefix)) continue;
+                this.scannedClasses++;
+                if (!isComponent(jarFile, jarEntry)) continue;
+
+                this.classNames.add(name.substring(0, name.length() - ".class".length()).replace('/', '.'));
+            }
+        }
+    }
+
+    private void loadClass(String className) {
+        try {
+            Class<?> clazz = classLoader.loadClass(className);
+            this.classes.add(clazz);
+        } catch (ClassNotFoundException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private boolean isComponent(JarFile jarFile, JarEntry jarEntry) throws IOException {
+        try (InputStream inputStream = jarFile.getInputStream(jarEntry)) {
+            return ClassFileScanner.isComponent(inputStream.readAllBytes());
+        } catch (IOException exception) {
+            throw new IOException(jarEntry.getName() + " could not be scanned.", exception);
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,366 @@
+package dev.steerup.easyclasscontroller.context.classes;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * A jar mapped into memory, or nested in one. Entries are filtered by comparing the name bytes in the central directory,
+ * so no string is created for entries outside the scanned package, and the remaining class files
+ * are inflated straight from the mapping and checked in parallel.
+ * Offsets are read as absolute, archives with data prepended to them, like a launch script, are rejected as invalid.
+ */
+class MappedJar implements AutoCloseable {
+
+    private static final int END_OF_CENTRAL_DIRECTORY = 0x06054b50;
+    private static final int ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR = 0x07064b50;
+    private static final int ZIP64_END_OF_CENTRAL_DIRECTORY = 0x06064b50;
+    private static final int CENTRAL_DIRECTORY_HEADER = 0x02014b50;
+    private static final int LOCAL_FILE_HEADER = 0x04034b50;
+    private static final int ZIP64_EXTRA_FIELD = 0x0001;
+
+    private static final int END_OF_CENTRAL_DIRECTORY_SIZE = 22;
+    private static final int CENTRAL_DIRECTORY_HEADER_SIZE = 46;
+    private static final int LOCAL_FILE_HEADER_SIZE = 30;
+    private static final int MAX_COMMENT_LENGTH = 0xFFFF;
+
+    private static final int STORED = 0;
+    private static final int DEFLATED = 8;
+
+    private static final byte[] CLASS_SUFFIX = ".class".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] JAR_SUFFIX = ".jar".getBytes(StandardCharsets.UTF_8);
+    private static final int PARALLEL_THRESHOLD = 256;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final int centralDirectoryOffset;
+    private final int centralDirectorySize;
+
+    private int scannedClasses;
+
+    private MappedJar(FileChannel channel, ByteBuffer buffer, int centralDirectoryOffset, int centralDirectorySize) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.centralDirectoryOffset = centralDirectoryOffset;
+        this.centralDirectorySize = centralDirectorySize;
+    }
+
+    /**
+     * @throws IOException if the file isn't a zip archive or too large to be mapped at once
+     */
+    static MappedJar open(Path jar) throws IOException {
+        final FileChannel channel = FileChannel.open(jar, StandardOpenOption.READ);
+        try {
+            final long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException(jar + " is too large to be mapped.");
+            }
+            return of(channel, channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        } catch (IOException | RuntimeException exception) {
+            channel.close();
+            throw exception;
+        }
+    }
+
+    /**
+     * @param buffer the bytes of a whole archive, e.g. of a jar nested in another one
+     */
+    static MappedJar of(ByteBuffer buffer) throws IOException {
+        return of(null, buffer.slice());
+    }
+
+    private static MappedJar of(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        final int size = buffer.limit();
+
+        final int end = findEndOfCentralDirectory(buffer);
+        long offset = Integer.toUnsignedLong(buffer.getInt(end + 16));
+        long length = Integer.toUnsignedLong(buffer.getInt(end + 12));
+
+        final int locator = end - 20;
+        if (locator >= 0 && buffer.getInt(locator) == ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR) {
+            final long zip64End = buffer.getLong(locator + 8);
+            if (zip64End < 0 || zip64End > size - 56 || buffer.getInt((int) zip64End) != ZIP64_END_OF_CENTRAL_DIRECTORY) {
+                throw new IOException("Invalid zip64 end of central directory.");
+            }
+            length = buffer.getLong((int) zip64End + 40);
+            offset = buffer.getLong((int) zip64End + 48);
+        }
+
+        if (offset < 0 || length < 0 || offset + length > size
+                || (length >= CENTRAL_DIRECTORY_HEADER_SIZE && buffer.getInt((int) offset) != CENTRAL_DIRECTORY_HEADER)) {
+            throw new IOException("Invalid central directory.");
+        }
+        return new MappedJar(channel, buffer, (int) offset, (int) length);
+    }
+
+    private static int findEndOfCentralDirectory(ByteBuffer buffer) throws IOException {
+        final int last = buffer.limit() - END_OF_CENTRAL_DIRECTORY_SIZE;
+        if (last < 0) throw new IOException("Not a zip archive.");
+        final int first = Math.max(0, last - MAX_COMMENT_LENGTH);
+        for (int position = last; position >= first; position--) {
+            if (buffer.getInt(position) == END_OF_CENTRAL_DIRECTORY) return position;
+        }
+        throw new IOException("Not a zip archive.");
+    }
+
+    /**
+     * @return a read only view of the central directory, which lists name, size and CRC of every entry
+     */
+    ByteBuffer centralDirectory() {
+        final ByteBuffer centralDirectory = this.buffer.duplicate();
+        centralDirectory.position(this.centralDirectoryOffset).limit(this.centralDirectoryOffset + this.centralDirectorySize);
+        return centralDirectory.slice().asReadOnlyBuffer();
+    }
+
+    /**
+     * @param prefix the package directory, e.g. {@code dev/steerup/}
+     * @return the names of all components below the prefix, in the order of the central directory
+     */
+    List<String> findComponents(String prefix) throws IOException {
+        return this.findComponents(List.of(""), prefix);
+    }
+
+    /**
+     * @param classRoots the directories inside the jar classes are stored relative to, e.g. {@code BOOT-INF/classes/}
+     * @param prefix     the package directory, e.g. {@code dev/steerup/}
+     * @return the names of all components below the prefix in any of the class roots, in the order of the central directory
+     */
+    List<String> findComponents(List<String> classRoots, String prefix) throws IOException {
+        final byte[][] prefixes = classRoots.stream()
+                .map(classRoot -> (classRoot + prefix).getBytes(StandardCharsets.UTF_8))
+                .toArray(byte[][]::new);
+        final int[] classRootLengths = classRoots.stream()
+                .mapToInt(classRoot -> classRoot.getBytes(StandardCharsets.UTF_8).length)
+                .toArray();
+        final List<Candidate> candidates = new ArrayList<>();
+
+        int position = this.centralDirectoryOffset;
+        final int end = this.centralDirectoryOffset + this.centralDirectorySize;
+        while (position + CENTRAL_DIRECTORY_HEADER_SIZE <= end && this.buffer.getInt(position) == CENTRAL_DIRECTORY_HEADER) {
+            final int nameLength = Short.toUnsignedInt(this.buffer.getShort(position + 28));
+            final int extraLength = Short.toUnsignedInt(this.buffer.getShort(position + 30));
+            final int commentLength = Short.toUnsignedInt(this.buffer.getShort(position + 32));
+            final int name = position + CENTRAL_DIRECTORY_HEADER_SIZE;
+
+            for (int i = 0; i < prefixes.length; i++) {
+                if (this.matches(name, nameLength, prefixes[i], CLASS_SUFFIX)) {
+                    candidates.add(this.readCandidate(position, name, nameLength, extraLength, classRootLengths[i]));
+                    break;
+                }
+            }
+            position = name + nameLength + extraLength + commentLength;
+        }
+        checkEnd(position, end);
+        this.scannedClasses = candidates.size();
+
+        final boolean[] components = new boolean[candidates.size()];
+        IntStream indexes = IntStream.range(0, candidates.size());
+        if (candidates.size() >= PARALLEL_THRESHOLD) indexes = indexes.parallel();
+        try {
+            indexes.forEach(index -> components[index] = this.isComponent(candidates.get(index)));
+        } catch (UncheckedIOException exception) {
+            throw exception.getCause();
+        }
+
+        final List<String> classNames = new ArrayList<>();
+        for (int i = 0; i < components.length; i++) {
+            if (components[i]) classNames.add(candidates.get(i).className());
+        }
+        return classNames;
+    }
+
+    /**
+     * Stored archives are sliced out of this one without copying, compressed ones are inflated.
+     *
+     * @return every jar contained in this one, e.g. the libraries of a fat jar
+     */
+    List<MappedJar> findNestedJars() throws IOException {
+        final List<MappedJar> nestedJars = new ArrayList<>();
+
+        int position = this.centralDirectoryOffset;
+        final int end = this.centralDirectoryOffset + this.centralDirectorySize;
+        while (position + CENTRAL_DIRECTORY_HEADER_SIZE <= end && this.buffer.getInt(position) == CENTRAL_DIRECTORY_HEADER) {
+            final int nameLength = Short.toUnsignedInt(this.buffer.getShort(position + 28));
+            final int extraLength = Short.toUnsignedInt(this.buffer.getShort(position + 30));
+            final int commentLength = Short.toUnsignedInt(this.buffer.getShort(position + 32));
+            final int name = position + CENTRAL_DIRECTORY_HEADER_SIZE;
+
+            if (this.matches(name, nameLength, new byte[0], JAR_SUFFIX)) {
+                final Candidate candidate = this.readCandidate(position, name, nameLength, extraLength, 0);
+                try {
+                    nestedJars.add(MappedJar.of(this.entry(candidate)));
+                } catch (IOException | UncheckedIOException exception) {
+                    exception.printStackTrace();
+                }
+            }
+            position = name + nameLength + extraLength + commentLength;
+        }
+        checkEnd(position, end);
+        return nestedJars;
+    }
+
+    int getScannedClasses() {
+        return this.scannedClasses;
+    }
+
+    /**
+     * @throws IOException if the central directory wasn't walked up to its end, e.g. because an entry is corrupt
+     */
+    private static void checkEnd(int position, int end) throws IOException {
+        if (position != end) {
+            throw new IOException("Invalid central directory entry at " + position + ".");
+        }
+    }
+
+    private boolean isComponent(Candidate candidate) {
+        try {
+            return ClassFileScanner.isComponent(this.read(candidate));
+        } catch (IOException exception) {
+            throw new UncheckedIOException(new IOException(candidate.className() + " could not be scanned.", exception));
+        }
+    }
+
+    private boolean matches(int name, int nameLength, byte[] prefix, byte[] suffix) {
+        if (nameLength < prefix.length + suffix.length) return false;
+        for (int i = 0; i < prefix.length; i++) {
+            if (this.buffer.get(name + i) != prefix[i]) return false;
+        }
+        final int suffixStart = name + nameLength - suffix.length;
+        for (int i = 0; i < suffix.length; i++) {
+            if (this.buffer.get(suffixStart + i) != suffix[i]) return false;
+        }
+        return true;
+    }
+
+    private Candidate readCandidate(int header, int name, int nameLength, int extraLength, int classRootLength) throws IOException {
+        final int method = Short.toUnsignedInt(this.buffer.getShort(header + 10));
+        long compressedSize = Integer.toUnsignedLong(this.buffer.getInt(header + 20));
+        long size = Integer.toUnsignedLong(this.buffer.getInt(header + 24));
+        long localHeader = Integer.toUnsignedLong(this.buffer.getInt(header + 42));
+
+        if (size == 0xFFFFFFFFL || compressedSize == 0xFFFFFFFFL || localHeader == 0xFFFFFFFFL) {
+            int extra = name + nameLength;
+            final int extraEnd = extra + extraLength;
+            while (extra + 4 <= extraEnd) {
+                final int id = Short.toUnsignedInt(this.buffer.getShort(extra));
+                final int length = Short.toUnsignedInt(this.buffer.getShort(extra + 2));
+                if (id == ZIP64_EXTRA_FIELD) {
+                    int value = extra + 4;
+                    if (size == 0xFFFFFFFFL) {
+                        size = this.buffer.getLong(value);
+                        value += 8;
+                    }
+                    if (compressedSize == 0xFFFFFFFFL) {
+                        compressedSize = this.buffer.getLong(value);
+                        value += 8;
+                    }
+                    if (localHeader == 0xFFFFFFFFL) {
+                        localHeader = this.buffer.getLong(value);
+                    }
+                    break;
+                }
+                extra += 4 + length;
+            }
+        }
+
+        if (size > Integer.MAX_VALUE || localHeader + LOCAL_FILE_HEADER_SIZE > this.buffer.limit()
+                || this.buffer.getInt((int) localHeader) != LOCAL_FILE_HEADER) {
+            throw new IOException("Invalid zip entry at " + localHeader + ".");
+        }
+
+        final int data = (int) localHeader + LOCAL_FILE_HEADER_SIZE
+                + Short.toUnsignedInt(this.buffer.getShort((int) localHeader + 26))
+                + Short.toUnsignedInt(this.buffer.getShort((int) localHeader + 28));
+        if (data + compressedSize > this.buffer.limit()) {
+            throw new IOException("Invalid zip entry at " + localHeader + ".");
+        }
+        return new Candidate(name, nameLength, classRootLength, method, data, (int) compressedSize, (int) size);
+    }
+
+    private ByteBuffer entry(Candidate candidate) {
+        if (candidate.method == STORED) {
+            final ByteBuffer data = this.buffer.duplicate();
+            data.position(candidate.data).limit(candidate.data + Math.min(candidate.size, candidate.compressedSize));
+            return data.slice();
+        }
+        return ByteBuffer.wrap(this.read(candidate));
+    }
+
+    private byte[] read(Candidate candidate) {
+        final ByteBuffer data = this.buffer.duplicate();
+        data.position(candidate.data).limit(candidate.data + candidate.compressedSize);
+
+        final byte[] bytes = new byte[candidate.size];
+        if (candidate.method == STORED) {
+            data.get(bytes, 0, Math.min(bytes.length, data.remaining()));
+            return bytes;
+        }
+        if (candidate.method != DEFLATED) {
+            throw new UncheckedIOException(new IOException("Unsupported compression method " + candidate.method + "."));
+        }
+
+        final Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(data);
+            int inflated = 0;
+            while (inflated < bytes.length && !inflater.finished()) {
+                final int count = inflater.inflate(bytes, inflated, bytes.length - inflated);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                inflated += count;
+            }
+            return bytes;
+        } catch (DataFormatException exception) {
+            throw new UncheckedIOException(new IOException(exception));
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Unmapping is left to the garbage collector, Java offers no supported way to release a mapping earlier.
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.channel != null) this.channel.close();
+    }
+
+    private class Candidate {
+
+        private final int name;
+        private final int nameLength;
+        private final int classRootLength;
+        private final int method;
+        private final int data;
+        private final int compressedSize;
+        private final int size;
+
+        private Candidate(int name, int nameLength, int classRootLength, int method, int data, int compressedSize, int size) {
+            this.name = name;
+            this.nameLength = nameLength;
+            this.classRootLength = classRootLength;
+            this.method = method;
+            this.data = data;
+            this.compressedSize = compressedSize;
+            this.size = size;
+        }
+
+        private String className() {
+            final byte[] bytes = new byte[this.nameLength - this.classRootLength - CLASS_SUFFIX.length];
+            final ByteBuffer nameBuffer = buffer.duplicate();
+            nameBuffer.position(this.name + this.classRootLength);
+            nameBuffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8).replace('/', '.');
+        }
+    }
+}
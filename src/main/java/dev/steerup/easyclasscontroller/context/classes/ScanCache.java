@@ -0,0 +1,133 @@
+package dev.steerup.easyclasscontroller.context.classes;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Remembers which classes of a jar are components, so an unchanged jar doesn't have to be scanned again.
+ * An entry is only used if the path, size, modification time and content hash of the jar still match.
+ * The content hash is taken over the central directory of the jar, which lists the name, size and CRC of every entry,
+ * so no entry has to be decompressed to compute it.
+ */
+public class ScanCache {
+
+    private static final int MAGIC = 0xECC5CAC4;
+    private static final int VERSION = 1;
+
+    private final Path directory;
+
+    public ScanCache(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * @return the component class names found in the given jar below the given path, if they are cached and still valid
+     */
+    public Optional<List<String>> read(Path jar, String path, byte[] contentHash) {
+        final Path cacheFile = this.cacheFile(jar, path);
+        try (DataInputStream inputStream = new DataInputStream(new BufferedInputStream(Files.newInputStream(cacheFile)))) {
+            final BasicFileAttributes attributes = Files.readAttributes(jar, BasicFileAttributes.class);
+            if (inputStream.readInt() != MAGIC || inputStream.readInt() != VERSION) return Optional.empty();
+            if (!inputStream.readUTF().equals(jar.toAbsolutePath().toString()) || !inputStream.readUTF().equals(path)) return Optional.empty();
+            if (inputStream.readLong() != attributes.size() || inputStream.readLong() != attributes.lastModifiedTime().toMillis()) return Optional.empty();
+
+            final byte[] cachedHash = new byte[inputStream.readUnsignedByte()];
+            inputStream.readFully(cachedHash);
+            if (!Arrays.equals(cachedHash, contentHash)) return Optional.empty();
+
+            final int count = inputStream.readInt();
+            final List<String> classNames = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                classNames.add(inputStream.readUTF());
+            }
+            return Optional.of(classNames);
+        } catch (IOException exception) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Writes to a temporary file first, so concurrently starting processes never read a half written entry.
+     * Failing to write only costs the next start a scan, so errors are printed, not thrown.
+     */
+    public void write(Path jar, String path, byte[] contentHash, List<String> classNames) {
+        final Path cacheFile = this.cacheFile(jar, path);
+        Path temporaryFile = null;
+        try {
+            Files.createDirectories(this.directory);
+            temporaryFile = Files.createTempFile(this.directory, cacheFile.getFileName().toString(), ".tmp");
+
+            final BasicFileAttributes attributes = Files.readAttributes(jar, BasicFileAttributes.class);
+            try (DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryFile)))) {
+                outputStream.writeInt(MAGIC);
+                outputStream.writeInt(VERSION);
+                outputStream.writeUTF(jar.toAbsolutePath().toString());
+                outputStream.writeUTF(path);
+                outputStream.writeLong(attributes.size());
+                outputStream.writeLong(attributes.lastModifiedTime().toMillis());
+                outputStream.writeByte(contentHash.length);
+                outputStream.write(contentHash);
+                outputStream.writeInt(classNames.size());
+                for (String className : classNames) {
+                    outputStream.writeUTF(className);
+                }
+            }
+
+            try {
+                Files.move(temporaryFile, cacheFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException exception) {
+                Files.move(temporaryFile, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException exception) {
+            exception.printStackTrace();
+            if (temporaryFile != null) {
+                try {
+                    Files.deleteIfExists(temporaryFile);
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    /**
+     * @param centralDirectory the central directory of the jar, which holds the name, size and CRC of every entry
+     */
+    public static byte[] contentHash(ByteBuffer centralDirectory) {
+        final MessageDigest digest = sha256();
+        digest.update(centralDirectory.duplicate());
+        return digest.digest();
+    }
+
+    private Path cacheFile(Path jar, String path) {
+        final byte[] key = sha256().digest((jar.toAbsolutePath() + "\0" + path).getBytes(StandardCharsets.UTF_8));
+        final StringBuilder fileName = new StringBuilder();
+        for (int i = 0; i < 16; i++) {
+            fileName.append(String.format("%02x", key[i]));
+        }
+        return this.directory.resolve(fileName.append(".scan").toString());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException exception) {
+            throw new InternalError("SHA-256 is not available.", exception);
+        }
+    }
+}
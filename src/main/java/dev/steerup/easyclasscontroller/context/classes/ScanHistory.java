@@ -0,0 +1,76 @@
+package dev.steerup.easyclasscontroller.context.classes;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Remembers the components found per code source and package during the lifetime of a context,
+ * so attaching a package which lies within an already scanned one doesn't scan anything again.
+ */
+public class ScanHistory {
+
+    private final Map<Source, Map<String, List<Class<?>>>> scans = new ConcurrentHashMap<>();
+
+    /**
+     * @param location    the scanned code source, or null if the whole classpath was scanned
+     * @param classLoader the class loader the components were loaded with
+     * @return the components below the path, if the path or a package containing it was scanned before
+     */
+    public Optional<List<Class<?>>> find(String location, ClassLoader classLoader, String path) {
+        final Map<String, List<Class<?>>> paths = this.scans.get(new Source(location, classLoader));
+        if (paths == null) return Optional.empty();
+
+        for (Map.Entry<String, List<Class<?>>> entry : paths.entrySet()) {
+            if (!contains(entry.getKey(), path)) continue;
+            return Optional.of(entry.getValue().stream()
+                    .filter(clazz -> contains(path, clazz.getName()))
+                    .collect(Collectors.toList()));
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * @return whether the name is the package itself or lies below it, {@code dev.foobar} doesn't lie below {@code dev.foo}
+     */
+    static boolean contains(String path, String name) {
+        return path.isEmpty() || name.equals(path) || name.startsWith(path + ".");
+    }
+
+    public void record(String location, ClassLoader classLoader, String path, List<Class<?>> components) {
+        this.scans.computeIfAbsent(new Source(location, classLoader), source -> new ConcurrentHashMap<>()).put(path, List.copyOf(components));
+    }
+
+    /**
+     * Drops everything found through the class loader, so it can be collected.
+     */
+    public void forget(ClassLoader classLoader) {
+        this.scans.keySet().removeIf(source -> source.classLoader == classLoader);
+    }
+
+    private static class Source {
+
+        private final String location;
+        private final ClassLoader classLoader;
+
+        private Source(String location, ClassLoader classLoader) {
+            this.location = location;
+            this.classLoader = classLoader;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (!(object instanceof Source)) return false;
+            Source source = (Source) object;
+            return Objects.equals(this.location, source.location) && this.classLoader == source.classLoader;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(this.location) * 31 + System.identityHashCode(this.classLoader);
+        }
+    }
+}
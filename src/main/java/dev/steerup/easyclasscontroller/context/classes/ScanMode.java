@@ -0,0 +1,17 @@
+package dev.steerup.easyclasscontroller.context.classes;
+
+/**
+ * Where the {@link dev.steerup.easyclasscontroller.context.builder.ContextBuilder} looks for components.
+ */
+public enum ScanMode {
+
+    /**
+     * Only the jar or directory the base class was loaded from.
+     */
+    CODE_SOURCE,
+
+    /**
+     * Every classpath root containing the package, including the jars nested in a fat jar.
+     */
+    CLASSPATH
+}
@@ -1,73 +1,108 @@
 package dev.steerup.easyclasscontroller.context.classes;
 
-import dev.steerup.easyclasscontroller.annotations.type.Component;
+import dev.steerup.easyclasscontroller.context.metrics.BootstrapListener;
 
-import java.io.DataInputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystemAlreadyExistsException;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Consumer;
 
+/**
+ * Walks the directory the context class loader resolves the package to. Besides exploded build output
+ * this covers packages inside the {@code jrt:} image or a jar, which are walked as a zip file system.
+ */
 public class SourceClassFetcher {
 
     private final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
     private final Consumer<List<Class<?>>> classesFetchedConsumer;
     private final List<Class<?>> classes = new ArrayList<>();
     private final String path;
+    private final String prefix;
+    private final BootstrapListener listener;
 
-    private URL baseResource;
-
-    private SourceClassFetcher(String path, Consumer<List<Class<?>>> classesFetchedConsumer) {
+    private SourceClassFetcher(String path, Consumer<List<Class<?>>> classesFetchedConsumer, BootstrapListener listener) {
         this.path = path;
+        this.prefix = path.isEmpty() ? "" : path.replace('.', '/') + "/";
         this.classesFetchedConsumer = classesFetchedConsumer;
+        this.listener = listener;
     }
 
     public static void fetch(String path, Consumer<List<Class<?>>> classesFetchedConsumer) throws IOException, ClassNotFoundException {
-        new SourceClassFetcher(path, classesFetchedConsumer).createBaseStream().start();
+        fetch(path, classesFetchedConsumer, BootstrapListener.NONE);
     }
 
-    public SourceClassFetcher createBaseStream() {
-        baseResource = this.classLoader.getResource(this.path.replaceAll("\\.", "/"));
-        assert baseResource != null;
-        return this;
+    public static void fetch(String path, Consumer<List<Class<?>>> classesFetchedConsumer, BootstrapListener listener) throws IOException, ClassNotFoundException {
+        new SourceClassFetcher(path, classesFetchedConsumer, listener).start();
     }
 
     public void start() throws IOException, ClassNotFoundException {
-        InputStream inputStream = baseResource.openStream();
-        DataInputStream dataInputStream = new DataInputStream(inputStream);
-        this.loadClassesOfInputStream(dataInputStream, this.path);
-        dataInputStream.close();
+        final URL packageUrl = this.classLoader.getResource(this.path.replace('.', '/'));
+        int scannedClasses = 0;
+        if (packageUrl != null) {
+            final URI packageUri = toUri(packageUrl);
+            try (FileSystem openedFileSystem = openFileSystem(packageUri)) {
+                final Path packageDirectory = openedFileSystem == null ? Paths.get(packageUri) : openedFileSystem.getPath(entryOf(packageUri));
+                final DirectoryScanner scanner = new DirectoryScanner(this.root(packageDirectory));
+                for (String className : scanner.findComponents(this.prefix)) {
+                    this.classes.add(this.classLoader.loadClass(className));
+                }
+                scannedClasses = scanner.getScannedClasses();
+            } catch (FileSystemNotFoundException exception) {
+                throw new IOException(packageUrl + " can't be walked.", exception);
+            }
+        }
+        this.listener.classesScanned(scannedClasses, this.classes.size());
         classesFetchedConsumer.accept(this.classes);
     }
 
-    public void loadClassesOfInputStream(DataInputStream dataInputStream, String packet) throws IOException, ClassNotFoundException {
-        String read = new String(dataInputStream.readAllBytes());
-        String[] split = read.split("\n");
-        for (String name : split) {
-            if (name.endsWith(".class")) {
-                String classIdentifier = (packet.equals("") ? "" : packet + ".") + name.substring(0, name.lastIndexOf('.'));
-                this.loadClass(classIdentifier);
-            } else {
-                String newPacket = packet.equals("") ? name : packet + "." + name;
-                this.loadPacket(newPacket);
-            }
+    /**
+     * @return the directory the package directory is relative to
+     */
+    private Path root(Path packageDirectory) {
+        Path root = packageDirectory;
+        for (int i = 0; !this.prefix.isEmpty() && i < this.prefix.split("/").length; i++) {
+            root = root.getParent();
         }
+        return root;
     }
 
-    private void loadPacket(String packet) throws IOException, ClassNotFoundException {
-        URL nextResource = classLoader.getResource(packet.replaceAll("\\.", "/"));
-        if (nextResource == null) return;
+    /**
+     * Only zip file systems have to be opened first, file and jrt are always available.
+     *
+     * @return the opened file system, to be closed once the package was walked, or null
+     */
+    private static FileSystem openFileSystem(URI uri) throws IOException {
+        if (!uri.getScheme().equals("jar")) return null;
+        try {
+            return FileSystems.newFileSystem(uri, Map.of());
+        } catch (FileSystemAlreadyExistsException exception) {
+            return null;
+        }
+    }
 
-        DataInputStream nextDataInputStream = new DataInputStream((InputStream) nextResource.getContent());
-        this.loadClassesOfInputStream(nextDataInputStream, packet);
-        nextDataInputStream.close();
+    /**
+     * @return the path of the package within the jar, e.g. {@code /dev/steerup} of {@code jar:file:/app.jar!/dev/steerup}
+     */
+    private static String entryOf(URI uri) {
+        final String specificPart = uri.getSchemeSpecificPart();
+        return specificPart.substring(specificPart.indexOf("!/") + 1);
     }
 
-    private void loadClass(String classIdentifier) throws ClassNotFoundException {
-        Class<?> clazz = Class.forName(classIdentifier);
-        if (!clazz.isAnnotationPresent(Component.class)) return;
-        this.classes.add(clazz);
+    private static URI toUri(URL url) throws IOException {
+        try {
+            return url.toURI();
+        } catch (URISyntaxException exception) {
+            throw new IOException(exception);
+        }
     }
-}
\ No newline at end of file
+}
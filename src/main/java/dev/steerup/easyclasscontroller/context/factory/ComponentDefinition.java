@@ -0,0 +1,80 @@
+package dev.steerup.easyclasscontroller.context.factory;
+
+import dev.steerup.easyclasscontroller.annotations.method.Construct;
+import dev.steerup.easyclasscontroller.context.Context;
+
+/**
+ * Everything the {@link dev.steerup.easyclasscontroller.context.builder.ContextBuilder} needs to wire a single component.
+ * Implementations are either generated by the {@link dev.steerup.easyclasscontroller.processor.ComponentProcessor}
+ * or backed by reflection.
+ */
+public interface ComponentDefinition {
+
+    Class<?> getType();
+
+    Class<?>[] getParameterTypes();
+
+    String[] getParameterNames();
+
+    /**
+     * @return the types of the fields loading a single component
+     */
+    Class<?>[] getLoadedTypes();
+
+    /**
+     * @return the element types of the collection fields loading all components assignable to them
+     */
+    Class<?>[] getLoadedElementTypes();
+
+    Object instantiate(Object[] arguments) throws Throwable;
+
+    void provideElements(Object instance, Context context);
+
+    void loadComponents(Object instance, Context context);
+
+    void fillElements(Object instance, Context context);
+
+    /**
+     * @return the names of the elements filled into fields, each once
+     */
+    String[] getFilledNames();
+
+    /**
+     * Assigns the element to every field filled with the given name.
+     */
+    void fillElement(Object instance, String name, Object element);
+
+    boolean hasConstructMethods(Construct.Priority priority);
+
+    /**
+     * Invokes the construct methods of the given priority in declaration order. All of them are invoked
+     * even if one fails, the first failure is thrown with the others attached as suppressed.
+     */
+    void construct(Object instance, Construct.Priority priority) throws Throwable;
+
+    boolean hasDestroyMethods();
+
+    /**
+     * Invokes the destroy methods in declaration order, like {@link #construct(Object, Construct.Priority)}.
+     */
+    void destroy(Object instance) throws Throwable;
+
+    boolean hasRefilledMethods();
+
+    /**
+     * Invokes the methods to call after filled fields were updated, like {@link #construct(Object, Construct.Priority)}.
+     */
+    void refilled(Object instance) throws Throwable;
+
+    /**
+     * @return the event types of the subscribe methods, in the order {@link #receive(Object, int, Object)} refers to them
+     */
+    Class<?>[] getSubscribedTypes();
+
+    /**
+     * Passes the event to a subscribe method.
+     *
+     * @param subscription the index of the method within {@link #getSubscribedTypes()}
+     */
+    void receive(Object instance, int subscription, Object event) throws Throwable;
+}
@@ -0,0 +1,48 @@
+package dev.steerup.easyclasscontroller.context.factory;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class ContextFactories {
+
+    private static final Map<ClassLoader, Map<String, Optional<ContextFactory>>> FACTORIES = new WeakHashMap<>();
+
+    public static Optional<ComponentDefinition> findDefinition(Class<?> type) {
+        return findFactory(type).map(factory -> factory.getDefinition(type));
+    }
+
+    /**
+     * Drops the factories loaded by the class loader, which would otherwise keep it from being collected.
+     */
+    public static void forget(ClassLoader classLoader) {
+        synchronized (FACTORIES) {
+            FACTORIES.remove(classLoader);
+        }
+    }
+
+    private static Optional<ContextFactory> findFactory(Class<?> type) {
+        final ClassLoader classLoader = type.getClassLoader();
+        final Map<String, Optional<ContextFactory>> factories;
+        synchronized (FACTORIES) {
+            factories = FACTORIES.computeIfAbsent(classLoader, loader -> new ConcurrentHashMap<>());
+        }
+        return factories.computeIfAbsent(type.getPackageName(), packageName -> loadFactory(classLoader, packageName));
+    }
+
+    private static Optional<ContextFactory> loadFactory(ClassLoader classLoader, String packageName) {
+        String factoryName = (packageName.isEmpty() ? "" : packageName + ".") + ContextFactory.GENERATED_CLASS_NAME;
+        try {
+            Class<?> factoryClass = Class.forName(factoryName, true, classLoader);
+            if (!ContextFactory.class.isAssignableFrom(factoryClass)) return Optional.empty();
+            return Optional.of((ContextFactory) factoryClass.getConstructor().newInstance());
+        } catch (ClassNotFoundException exception) {
+            return Optional.empty();
+        } catch (NoSuchMethodException | InstantiationException | IllegalAccessException | InvocationTargetException exception) {
+            exception.printStackTrace();
+            return Optional.empty();
+        }
+    }
+}
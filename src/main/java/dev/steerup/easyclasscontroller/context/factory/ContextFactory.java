@@ -0,0 +1,14 @@
+package dev.steerup.easyclasscontroller.context.factory;
+
+/**
+ * Generated once per package by the {@link dev.steerup.easyclasscontroller.processor.ComponentProcessor}.
+ */
+public interface ContextFactory {
+
+    String GENERATED_CLASS_NAME = "GeneratedContextFactory";
+
+    /**
+     * @return the definition of the given component or null if it has to be wired by reflection
+     */
+    ComponentDefinition getDefinition(Class<?> type);
+}
@@ -0,0 +1,56 @@
+package dev.steerup.easyclasscontroller.context.metrics;
+
+import dev.steerup.easyclasscontroller.annotations.method.Construct;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Observes a bootstrap. Components may be instantiated and construct methods performed on several threads at once,
+ * so implementations have to be thread safe.
+ *
+ * @see BootstrapReport
+ */
+public interface BootstrapListener {
+
+    BootstrapListener NONE = new BootstrapListener() {
+    };
+
+    /**
+     * @param scanned the classes which have been looked at
+     * @param loaded  the classes which have been loaded as components
+     */
+    default void classesScanned(int scanned, int loaded) {
+    }
+
+    /**
+     * @param allocatedBytes the bytes allocated by the thread running the phase, -1 if the JVM can't measure them.
+     *                       Allocations of other threads, e.g. during a concurrent instantiation, aren't included.
+     */
+    default void phaseCompleted(BootstrapPhase phase, Duration wallTime, long allocatedBytes) {
+    }
+
+    default void componentInstantiated(Class<?> type, Duration time) {
+    }
+
+    /**
+     * Called once per component and priority, covering all its construct methods of that priority.
+     */
+    default void constructMethodsPerformed(Class<?> type, Construct.Priority priority, Duration time) {
+    }
+
+    /**
+     * Called for every field of a component loading a type no component matches. The field stays null,
+     * a later attach may still provide the component.
+     */
+    default void componentNotLoaded(Class<?> type, Class<?> loadedType) {
+    }
+
+    /**
+     * Called for every jar or classpath root which couldn't be scanned. The jar of the base class is read through
+     * {@link java.util.jar.JarFile} afterwards, other classpath roots are skipped.
+     */
+    default void scanFailed(Path source, IOException exception) {
+    }
+}
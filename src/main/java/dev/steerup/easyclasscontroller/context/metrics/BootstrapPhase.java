@@ -0,0 +1,13 @@
+package dev.steerup.easyclasscontroller.context.metrics;
+
+/**
+ * The stages of the {@link dev.steerup.easyclasscontroller.context.builder.ContextBuilder}, in the order they run.
+ */
+public enum BootstrapPhase {
+    INITIALIZE_CLASSES,
+    INSTANTIATE_CLASSES,
+    LOAD_PROVIDED_ELEMENTS,
+    SET_PROVIDED_COMPONENTS,
+    SET_PROVIDED_ELEMENTS,
+    PERFORM_CONSTRUCT_METHODS
+}
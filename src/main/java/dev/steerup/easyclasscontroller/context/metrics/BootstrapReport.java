@@ -0,0 +1,191 @@
+package dev.steerup.easyclasscontroller.context.metrics;
+
+import dev.steerup.easyclasscontroller.annotations.method.Construct;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+
+/**
+ * Collects everything a {@link BootstrapListener} is told, to be exported as JSON once the bootstrap is done.
+ */
+public class BootstrapReport implements BootstrapListener {
+
+    private final Map<BootstrapPhase, PhaseMetrics> phases = Collections.synchronizedMap(new EnumMap<>(BootstrapPhase.class));
+    private final Queue<Timing> components = new ConcurrentLinkedQueue<>();
+    private final Queue<Timing> constructMethods = new ConcurrentLinkedQueue<>();
+    private final Queue<String> unloadedComponents = new ConcurrentLinkedQueue<>();
+    private final Queue<String> scanFailures = new ConcurrentLinkedQueue<>();
+    private volatile int scannedClasses;
+    private volatile int loadedClasses;
+
+    @Override
+    public void classesScanned(int scanned, int loaded) {
+        this.scannedClasses = scanned;
+        this.loadedClasses = loaded;
+    }
+
+    @Override
+    public void phaseCompleted(BootstrapPhase phase, Duration wallTime, long allocatedBytes) {
+        this.phases.put(phase, new PhaseMetrics(wallTime, allocatedBytes));
+    }
+
+    @Override
+    public void componentInstantiated(Class<?> type, Duration time) {
+        this.components.add(new Timing(type, null, time));
+    }
+
+    @Override
+    public void constructMethodsPerformed(Class<?> type, Construct.Priority priority, Duration time) {
+        this.constructMethods.add(new Timing(type, priority, time));
+    }
+
+    @Override
+    public void componentNotLoaded(Class<?> type, Class<?> loadedType) {
+        this.unloadedComponents.add(type.getName() + "(Loads: " + loadedType.getName() + ")");
+    }
+
+    @Override
+    public void scanFailed(Path source, IOException exception) {
+        this.scanFailures.add(source + ": " + exception.getMessage());
+    }
+
+    public int getScannedClasses() {
+        return this.scannedClasses;
+    }
+
+    public int getLoadedClasses() {
+        return this.loadedClasses;
+    }
+
+    public Map<BootstrapPhase, PhaseMetrics> getPhases() {
+        synchronized (this.phases) {
+            return Collections.unmodifiableMap(new EnumMap<>(this.phases));
+        }
+    }
+
+    /**
+     * @return the constructor timings, slowest first
+     */
+    public List<Timing> getComponents() {
+        return sorted(this.components);
+    }
+
+    /**
+     * @return the construct method timings, slowest first
+     */
+    public List<Timing> getConstructMethods() {
+        return sorted(this.constructMethods);
+    }
+
+    /**
+     * @return the fields no component could be loaded into, named like type(Loads: loaded type)
+     */
+    public List<String> getUnloadedComponents() {
+        return Collections.unmodifiableList(new ArrayList<>(this.unloadedComponents));
+    }
+
+    /**
+     * @return the sources which couldn't be scanned, named like source: message
+     */
+    public List<String> getScanFailures() {
+        return Collections.unmodifiableList(new ArrayList<>(this.scanFailures));
+    }
+
+    public String toJson() {
+        final StringBuilder json = new StringBuilder("{\n");
+        json.append("  \"scannedClasses\": ").append(this.scannedClasses).append(",\n");
+        json.append("  \"loadedClasses\": ").append(this.loadedClasses).append(",\n");
+        json.append("  \"phases\": [");
+        json.append(this.getPhases().entrySet().stream()
+                .map(entry -> "\n    {\"phase\": \"" + entry.getKey() + "\", \"wallTimeNanos\": " + entry.getValue().getWallTime().toNanos()
+                        + ", \"allocatedBytes\": " + entry.getValue().getAllocatedBytes() + "}")
+                .collect(Collectors.joining(",")));
+        json.append("\n  ],\n  \"components\": [");
+        json.append(this.getComponents().stream()
+                .map(timing -> "\n    {\"type\": \"" + timing.getType().getName() + "\", \"timeNanos\": " + timing.getTime().toNanos() + "}")
+                .collect(Collectors.joining(",")));
+        json.append("\n  ],\n  \"constructMethods\": [");
+        json.append(this.getConstructMethods().stream()
+                .map(timing -> "\n    {\"type\": \"" + timing.getType().getName() + "\", \"priority\": \"" + timing.getPriority()
+                        + "\", \"timeNanos\": " + timing.getTime().toNanos() + "}")
+                .collect(Collectors.joining(",")));
+        json.append("\n  ],\n  \"unloadedComponents\": [");
+        json.append(this.getUnloadedComponents().stream()
+                .map(unloaded -> "\n    \"" + unloaded + "\"")
+                .collect(Collectors.joining(",")));
+        json.append("\n  ],\n  \"scanFailures\": [");
+        json.append(this.getScanFailures().stream()
+                .map(failure -> "\n    \"" + failure.replace("\\", "\\\\").replace("\"", "\\\"") + "\"")
+                .collect(Collectors.joining(",")));
+        json.append("\n  ]\n}");
+        return json.toString();
+    }
+
+    @Override
+    public String toString() {
+        return this.toJson();
+    }
+
+    private static List<Timing> sorted(Queue<Timing> timings) {
+        final List<Timing> sorted = new ArrayList<>(timings);
+        sorted.sort(Comparator.comparing(Timing::getTime).reversed());
+        return Collections.unmodifiableList(sorted);
+    }
+
+    public static class PhaseMetrics {
+
+        private final Duration wallTime;
+        private final long allocatedBytes;
+
+        private PhaseMetrics(Duration wallTime, long allocatedBytes) {
+            this.wallTime = wallTime;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        public Duration getWallTime() {
+            return this.wallTime;
+        }
+
+        public long getAllocatedBytes() {
+            return this.allocatedBytes;
+        }
+    }
+
+    public static class Timing {
+
+        private final Class<?> type;
+        private final Construct.Priority priority;
+        private final Duration time;
+
+        private Timing(Class<?> type, Construct.Priority priority, Duration time) {
+            this.type = type;
+            this.priority = priority;
+            this.time = time;
+        }
+
+        public Class<?> getType() {
+            return this.type;
+        }
+
+        /**
+         * @return the priority of the construct methods, null for constructor timings
+         */
+        public Construct.Priority getPriority() {
+            return this.priority;
+        }
+
+        public Duration getTime() {
+            return this.time;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package dev.steerup.easyclasscontroller.processor;
+
+import dev.steerup.easyclasscontroller.context.classes.IndexClassFetcher;
+import dev.steerup.easyclasscontroller.context.factory.ContextFactory;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Validates the usage of the controller annotations at compile time and writes the component index
+ * read by {@link IndexClassFetcher}, so the code source doesn't have to be scanned at runtime.
+ * For every package containing components a {@link ContextFactory} is generated which wires them without reflection.
+ */
+@SupportedAnnotationTypes({
+        ComponentProcessor.COMPONENT,
+        ComponentProcessor.LOAD,
+        ComponentProcessor.FILL,
+        ComponentProcessor.PROVIDE,
+        ComponentProcessor.CONSTRUCT,
+        ComponentProcessor.DESTROY,
+        ComponentProcessor.REFILLED,
+        ComponentProcessor.SUBSCRIBE
+})
+public class ComponentProcessor extends AbstractProcessor {
+
+    static final String COMPONENT = "dev.steerup.easyclasscontroller.annotations.type.Component";
+    static final String LOAD = "dev.steerup.easyclasscontroller.annotations.field.Load";
+    static final String FILL = "dev.steerup.easyclasscontroller.annotations.field.Fill";
+    static final String PROVIDE = "dev.steerup.easyclasscontroller.annotations.field.Provide";
+    static final String CONSTRUCT = "dev.steerup.easyclasscontroller.annotations.method.Construct";
+    static final String DESTROY = "dev.steerup.easyclasscontroller.annotations.method.Destroy";
+    static final String REFILLED = "dev.steerup.easyclasscontroller.annotations.method.Refilled";
+    static final String SUBSCRIBE = "dev.steerup.easyclasscontroller.annotations.method.Subscribe";
+
+    private final Set<String> components = new TreeSet<>();
+    private final Map<String, List<TypeElement>> roundComponents = new LinkedHashMap<>();
+    private final Set<String> generatedPackages = new HashSet<>();
+
+    private Elements elements;
+    private Messager messager;
+    private Filer filer;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        this.elements = processingEnv.getElementUtils();
+        this.messager = processingEnv.getMessager();
+        this.filer = processingEnv.getFiler();
+        this.readPreviousIndex();
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            this.writeIndex();
+            return false;
+        }
+
+        for (TypeElement annotation : annotations) {
+            String annotationName = annotation.getQualifiedName().toString();
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (annotationName.equals(COMPONENT)) {
+                    this.processComponent(element);
+                } else {
+                    this.processMember(element, annotationName);
+                }
+            }
+        }
+
+        this.roundComponents.forEach(this::writeContextFactory);
+        this.roundComponents.clear();
+        return false;
+    }
+
+    private void processComponent(Element element) {
+        if (element.getKind() != ElementKind.CLASS) {
+            this.error(element, "@Component can only be used on classes.");
+            return;
+        }
+
+        TypeElement type = (TypeElement) element;
+        if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+            this.error(type, "Component " + type.getSimpleName() + " must not be abstract.");
+            return;
+        }
+        if (type.getNestingKind() == NestingKind.MEMBER && !type.getModifiers().contains(Modifier.STATIC)) {
+            this.error(type, "Component " + type.getSimpleName() + " must be a top level or static nested class.");
+            return;
+        }
+
+        boolean publicConstructor = ElementFilter.constructorsIn(type.getEnclosedElements())
+                .stream()
+                .anyMatch(constructor -> constructor.getModifiers().contains(Modifier.PUBLIC));
+        if (!publicConstructor) {
+            this.error(type, "Component " + type.getSimpleName() + " must declare a public constructor.");
+            return;
+        }
+
+        this.components.add(this.elements.getBinaryName(type).toString());
+
+        Optional<String> unsupportedReason = ContextFactoryGenerator.unsupportedReason(type);
+        if (unsupportedReason.isPresent()) {
+            this.messager.printMessage(Diagnostic.Kind.NOTE, "Component " + type.getSimpleName() + " is wired by reflection because " + unsupportedReason.get() + ".", type);
+            return;
+        }
+        String packageName = this.elements.getPackageOf(type).getQualifiedName().toString();
+        this.roundComponents.computeIfAbsent(packageName, name -> new ArrayList<>()).add(type);
+    }
+
+    private void processMember(Element element, String annotationName) {
+        String simpleName = annotationName.substring(annotationName.lastIndexOf('.') + 1);
+
+        boolean invoked = annotationName.equals(CONSTRUCT) || annotationName.equals(DESTROY) || annotationName.equals(REFILLED);
+        if (invoked && !((ExecutableElement) element).getParameters().isEmpty()) {
+            this.error(element, "@" + simpleName + " method " + element.getSimpleName() + " must not declare parameters.");
+        }
+        if (annotationName.equals(SUBSCRIBE)) {
+            List<? extends VariableElement> parameters = ((ExecutableElement) element).getParameters();
+            if (parameters.size() != 1 || parameters.get(0).asType().getKind().isPrimitive()) {
+                this.error(element, "@" + simpleName + " method " + element.getSimpleName() + " must declare a single event parameter.");
+            }
+        }
+
+        Element enclosingElement = element.getEnclosingElement();
+        boolean insideComponent = enclosingElement.getAnnotationMirrors()
+                .stream()
+                .anyMatch(mirror -> mirror.getAnnotationType().toString().equals(COMPONENT));
+        if (!insideComponent) {
+            this.messager.printMessage(Diagnostic.Kind.WARNING, "@" + simpleName + " is ignored outside of components.", element);
+        }
+    }
+
+    /**
+     * Keeps the entries of an index written by a previous, incremental compilation
+     * as long as their classes still exist and are still components.
+     */
+    private void readPreviousIndex() {
+        try {
+            FileObject resource = this.filer.getResource(StandardLocation.CLASS_OUTPUT, "", IndexClassFetcher.INDEX_LOCATION);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.openInputStream(), StandardCharsets.UTF_8))) {
+                reader.lines()
+                        .map(String::trim)
+                        .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                        .filter(this::isStillComponent)
+                        .forEach(this.components::add);
+            }
+        } catch (IOException | IllegalArgumentException exception) {
+            // no previous index
+        }
+    }
+
+    private boolean isStillComponent(String binaryName) {
+        TypeElement type = this.elements.getTypeElement(binaryName.replace('$', '.'));
+        return type != null && type.getAnnotationMirrors()
+                .stream()
+                .anyMatch(mirror -> mirror.getAnnotationType().toString().equals(COMPONENT));
+    }
+
+    private void writeIndex() {
+        try {
+            FileObject resource = this.filer.createResource(StandardLocation.CLASS_OUTPUT, "", IndexClassFetcher.INDEX_LOCATION);
+            try (Writer writer = resource.openWriter()) {
+                for (String component : this.components) {
+                    writer.write(component);
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException exception) {
+            this.messager.printMessage(Diagnostic.Kind.ERROR, "Component index could not be written: " + exception.getMessage());
+        }
+    }
+
+    private void writeContextFactory(String packageName, List<TypeElement> packageComponents) {
+        if (!this.generatedPackages.add(packageName)) {
+            this.messager.printMessage(Diagnostic.Kind.NOTE, "Components generated into " + packageName + " by another processor are wired by reflection.");
+            return;
+        }
+
+        String factoryName = (packageName.isEmpty() ? "" : packageName + ".") + ContextFactory.GENERATED_CLASS_NAME;
+        String source = new ContextFactoryGenerator(this.processingEnv, packageName).generate(packageComponents);
+        try (Writer writer = this.filer.createSourceFile(factoryName, packageComponents.toArray(Element[]::new)).openWriter()) {
+            writer.write(source);
+        } catch (IOException exception) {
+            this.messager.printMessage(Diagnostic.Kind.ERROR, "Context factory " + factoryName + " could not be written: " + exception.getMessage());
+        }
+    }
+
+    private void error(Element element, String message) {
+        this.messager.printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
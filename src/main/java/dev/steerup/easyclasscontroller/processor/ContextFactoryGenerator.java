@@ -0,0 +1,460 @@
+package dev.steerup.easyclasscontroller.processor;
+
+import dev.steerup.easyclasscontroller.annotations.field.Fill;
+import dev.steerup.easyclasscontroller.annotations.field.Load;
+import dev.steerup.easyclasscontroller.annotations.field.Provide;
+import dev.steerup.easyclasscontroller.annotations.method.Construct;
+import dev.steerup.easyclasscontroller.annotations.method.Destroy;
+import dev.steerup.easyclasscontroller.annotations.method.Refilled;
+import dev.steerup.easyclasscontroller.annotations.method.Subscribe;
+import dev.steerup.easyclasscontroller.context.factory.ContextFactory;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Writes the source of the {@link ContextFactory} of one package. Every component gets a nested
+ * definition which calls its constructor, assigns its fields and invokes its construct methods directly.
+ * Private members are accessed through method and var handles resolved once in the static initializer.
+ */
+class ContextFactoryGenerator {
+
+    private static final String DEFINITION = "dev.steerup.easyclasscontroller.context.factory.ComponentDefinition";
+    private static final String CONTEXT = "dev.steerup.easyclasscontroller.context.Context";
+    private static final String PRIORITY = "dev.steerup.easyclasscontroller.annotations.method.Construct.Priority";
+
+    private final Types types;
+    private final String packageName;
+    private final StringBuilder source = new StringBuilder();
+
+    ContextFactoryGenerator(ProcessingEnvironment processingEnv, String packageName) {
+        this.types = processingEnv.getTypeUtils();
+        this.packageName = packageName;
+    }
+
+    /**
+     * @return an empty optional if the component can't be wired without reflection
+     */
+    static Optional<String> unsupportedReason(TypeElement component) {
+        for (Element element = component; element instanceof TypeElement; element = element.getEnclosingElement()) {
+            if (element.getModifiers().contains(Modifier.PRIVATE)) {
+                return Optional.of("it is not accessible from its package");
+            }
+        }
+        for (VariableElement field : ElementFilter.fieldsIn(component.getEnclosedElements())) {
+            boolean injected = field.getAnnotation(Load.class) != null || field.getAnnotation(Fill.class) != null;
+            if (injected && field.getModifiers().contains(Modifier.FINAL)) {
+                return Optional.of("field " + field.getSimpleName() + " is final");
+            }
+        }
+        return Optional.empty();
+    }
+
+    String generate(List<TypeElement> components) {
+        if (!this.packageName.isEmpty()) {
+            this.line(0, "package " + this.packageName + ";");
+            this.line(0, "");
+        }
+        this.line(0, "@javax.annotation.processing.Generated(\"" + ComponentProcessor.class.getName() + "\")");
+        this.line(0, "@SuppressWarnings({\"unchecked\", \"rawtypes\"})");
+        this.line(0, "public final class " + ContextFactory.GENERATED_CLASS_NAME + " implements " + ContextFactory.class.getName() + " {");
+        this.line(0, "");
+        this.line(1, "private static final java.util.Map<Class<?>, " + DEFINITION + "> DEFINITIONS = java.util.Map.ofEntries(");
+        for (int i = 0; i < components.size(); i++) {
+            String separator = i == components.size() - 1 ? "" : ",";
+            this.line(3, "java.util.Map.entry(" + this.erasure(components.get(i).asType()) + ".class, new Definition" + i + "())" + separator);
+        }
+        this.line(1, ");");
+        this.line(0, "");
+        this.line(1, "@Override");
+        this.line(1, "public " + DEFINITION + " getDefinition(Class<?> type) {");
+        this.line(2, "return DEFINITIONS.get(type);");
+        this.line(1, "}");
+
+        for (int i = 0; i < components.size(); i++) {
+            this.line(0, "");
+            this.generateDefinition(i, components.get(i));
+        }
+        this.line(0, "}");
+        return this.source.toString();
+    }
+
+    private void generateDefinition(int index, TypeElement component) {
+        final String type = this.erasure(component.asType());
+        final List<VariableElement> fields = ElementFilter.fieldsIn(component.getEnclosedElements());
+        final List<ExecutableElement> methods = ElementFilter.methodsIn(component.getEnclosedElements());
+        final ExecutableElement constructor = ElementFilter.constructorsIn(component.getEnclosedElements())
+                .stream()
+                .filter(element -> element.getModifiers().contains(Modifier.PUBLIC))
+                .findFirst()
+                .orElseThrow();
+
+        this.line(1, "private static final class Definition" + index + " implements " + DEFINITION + " {");
+        this.generateHandles(type, fields, methods);
+
+        this.line(0, "");
+        this.line(2, "@Override");
+        this.line(2, "public Class<?> getType() {");
+        this.line(3, "return " + type + ".class;");
+        this.line(2, "}");
+
+        final List<String> parameterTypes = new ArrayList<>();
+        final List<String> parameterNames = new ArrayList<>();
+        final List<String> arguments = new ArrayList<>();
+        final List<? extends VariableElement> parameters = constructor.getParameters();
+        for (int i = 0; i < parameters.size(); i++) {
+            String parameterType = this.erasure(parameters.get(i).asType());
+            parameterTypes.add(parameterType + ".class");
+            parameterNames.add("\"" + parameters.get(i).getSimpleName() + "\"");
+            arguments.add("(" + parameterType + ") arguments[" + i + "]");
+        }
+
+        this.line(0, "");
+        this.line(2, "@Override");
+        this.line(2, "public Class<?>[] getParameterTypes() {");
+        this.line(3, "return new Class<?>[]{" + String.join(", ", parameterTypes) + "};");
+        this.line(2, "}");
+        this.line(0, "");
+        this.line(2, "@Override");
+        this.line(2, "public String[] getParameterNames() {");
+        this.line(3, "return new String[]{" + String.join(", ", parameterNames) + "};");
+        this.line(2, "}");
+        final List<String> loadedTypes = new ArrayList<>();
+        final List<String> loadedElementTypes = new ArrayList<>();
+        for (VariableElement field : fields) {
+            if (field.getAnnotation(Load.class) == null) continue;
+            Optional<String> elementType = this.elementType(field);
+            if (elementType.isPresent()) loadedElementTypes.add(elementType.get() + ".class");
+            else loadedTypes.add(this.erasure(field.asType()) + ".class");
+        }
+        this.line(0, "");
+        this.line(2, "@Override");
+        this.line(2, "public Class<?>[] getLoadedTypes() {");
+        this.line(3, "return new Class<?>[]{" + String.join(", ", loadedTypes) + "};");
+        this.line(2, "}");
+        this.line(0, "");
+        this.line(2, "@Override");
+        this.line(2, "public Class<?>[] getLoadedElementTypes() {");
+        this.line(3, "return new Class<?>[]{" + String.join(", ", loadedElementTypes) + "};");
+        this.line(2, "}");
+        this.line(0, "");
+        this.line(2, "@Override");
+        this.line(2, "public Object instantiate(Object[] arguments) throws Throwable {");
+        this.line(3, "return new " + type + "(" + String.join(", ", arguments) + ");");
+        this.line(2, "}");
+
+        this.line(0, "");
+        this.line(2, "@Override");
+        this.line(2, "public void provideElements(Object instance, " + CONTEXT + " context) {");
+        this.castComponent(type, fields.stream().anyMatch(field -> field.getAnnotation(Provide.class) != null));
+        for (VariableElement field : fields) {
+            Provide provide = field.getAnnotation(Provide.class);
+            if (provide == null) continue;
+            String name = provide.value().equals("") ? field.getSimpleName().toString() : provide.value();
+            this.line(3, "context.provide(\"" + name + "\", " + this.readField(type, field) + ");");
+        }
+        this.line(2, "}");
+
+        this.line(0, "");
+        this.line(2, "@Override");
+        this.line(2, "public void loadComponents(Object instance, " + CONTEXT + " context) {");
+        this.castComponent(type, fields.stream().anyMatch(field -> field.getAnnotation(Load.class) != null));
+        for (VariableElement field : fields) {
+            if (field.getAnnotation(Load.class) == null) continue;
+            Optional<String> elementType = this.elementType(field);
+            this.writeField(type, field, elementType.isPresent()
+                    ? "context.getComponents(" + elementType.get() + ".class)"
+                    : "context.resolveComponent(" + this.erasure(field.asType()) + ".class)");
+        }
+        this.line(2, "}");
+
+        this.line(0, "");
+        this.line(2, "@Override");
+        this.line(2, "public void fillElements(Object instance, " + CONTEXT + " context) {");
+        this.castComponent(type, fields.stream().anyMatch(field -> field.getAnnotation(Fill.class) != null));
+        for (VariableElement field : fields) {
+            Fill fill = field.getAnnotation(Fill.class);
+            if (fill == null) continue;
+            String name = fill.value().equals("") ? field.getSimpleName().toString() : fill.value();
+            this.writeField(type, field, "context.getProvidedElement(\"" + name + "\")");
+        }
+        this.line(2, "}");
+
+        final Map<String, List<VariableElement>> filledFields = new LinkedHashMap<>();
+        for (VariableElement field : fields) {
+            Fill fill = field.getAnnotation(Fill.class);
+            if (fill == null) continue;
+            String name = fill.value().equals("") ? field.getSimpleName().toString() : fill.value();
+            filledFields.computeIfAbsent(name, key -> new ArrayList<>()).add(field);
+        }
+        final List<String> filledNames = new ArrayList<>();
+        filledFields.keySet().forEach(name -> filledNames.add("\"" + name + "\""));
+        this.line(0, "");
+        this.line(2, "@Override");
+        this.line(2, "public String[] getFilledNames() {");
+        this.line(3, "return new String[]{" + String.join(", ", filledNames) + "};");
+        this.line(2, "}");
+        this.line(0, "");
+        this.line(2, "@Override");
+        this.line(2, "public void fillElement(Object instance, String name, Object element) {");
+        this.castComponent(type, !filledFields.isEmpty());
+        filledFields.forEach((name, namedFields) -> {
+            this.line(3, "if (name.equals(\"" + name + "\")) {");
+            namedFields.forEach(field -> this.writeField(4, type, field, "element"));
+            this.line(3, "}");
+        });
+        this.line(2, "}");
+
+        final List<String> priorities = new ArrayList<>();
+        for (Construct.Priority priority : Construct.Priority.values()) {
+            if (methods.stream().anyMatch(method -> method.getAnnotation(Construct.class) != null && method.getAnnotation(Construct.class).value() == priority)) {
+                priorities.add("priority == " + PRIORITY + "." + priority.name());
+            }
+        }
+        this.line(0, "");
+        this.line(2, "@Override");
+        this.line(2, "public boolean hasConstructMethods(" + PRIORITY + " priority) {");
+        this.line(3, "return " + (priorities.isEmpty() ? "false" : String.join(" || ", priorities)) + ";");
+        this.line(2, "}");
+
+        this.line(0, "");
+        this.line(2, "@Override");
+        this.line(2, "public void construct(Object instance, " + PRIORITY + " priority) throws Throwable {");
+        this.castComponent(type, !priorities.isEmpty());
+        for (Construct.Priority priority : Construct.Priority.values()) {
+            List<ExecutableElement> prioritizedMethods = new ArrayList<>();
+            for (ExecutableElement method : methods) {
+                Construct construct = method.getAnnotation(Construct.class);
+                if (construct != null && construct.value() == priority) {
+                    prioritizedMethods.add(method);
+                }
+            }
+            if (prioritizedMethods.isEmpty()) continue;
+
+            this.line(3, "if (priority == " + PRIORITY + "." + priority.name() + ") {");
+            this.invokeMethods(4, type, prioritizedMethods);
+            this.line(3, "}");
+        }
+        this.line(2, "}");
+
+        final List<ExecutableElement> destroyMethods = new ArrayList<>();
+        for (ExecutableElement method : methods) {
+            if (method.getAnnotation(Destroy.class) != null) destroyMethods.add(method);
+        }
+        this.line(0, "");
+        this.line(2, "@Override");
+        this.line(2, "public boolean hasDestroyMethods() {");
+        this.line(3, "return " + !destroyMethods.isEmpty() + ";");
+        this.line(2, "}");
+        this.line(0, "");
+        this.line(2, "@Override");
+        this.line(2, "public void destroy(Object instance) throws Throwable {");
+        this.castComponent(type, !destroyMethods.isEmpty());
+        if (!destroyMethods.isEmpty()) this.invokeMethods(3, type, destroyMethods);
+        this.line(2, "}");
+
+        final List<ExecutableElement> refilledMethods = new ArrayList<>();
+        for (ExecutableElement method : methods) {
+            if (method.getAnnotation(Refilled.class) != null) refilledMethods.add(method);
+        }
+        this.line(0, "");
+        this.line(2, "@Override");
+        this.line(2, "public boolean hasRefilledMethods() {");
+        this.line(3, "return " + !refilledMethods.isEmpty() + ";");
+        this.line(2, "}");
+        this.line(0, "");
+        this.line(2, "@Override");
+        this.line(2, "public void refilled(Object instance) throws Throwable {");
+        this.castComponent(type, !refilledMethods.isEmpty());
+        if (!refilledMethods.isEmpty()) this.invokeMethods(3, type, refilledMethods);
+        this.line(2, "}");
+
+        final List<ExecutableElement> subscribeMethods = new ArrayList<>();
+        final List<String> subscribedTypes = new ArrayList<>();
+        for (ExecutableElement method : methods) {
+            if (method.getAnnotation(Subscribe.class) == null) continue;
+            subscribeMethods.add(method);
+            subscribedTypes.add(this.erasure(method.getParameters().get(0).asType()) + ".class");
+        }
+        this.line(0, "");
+        this.line(2, "@Override");
+        this.line(2, "public Class<?>[] getSubscribedTypes() {");
+        this.line(3, "return new Class<?>[]{" + String.join(", ", subscribedTypes) + "};");
+        this.line(2, "}");
+        this.line(0, "");
+        this.line(2, "@Override");
+        this.line(2, "public void receive(Object instance, int subscription, Object event) throws Throwable {");
+        this.castComponent(type, !subscribeMethods.isEmpty());
+        if (!subscribeMethods.isEmpty()) {
+            this.line(3, "switch (subscription) {");
+            for (int i = 0; i < subscribeMethods.size(); i++) {
+                final ExecutableElement method = subscribeMethods.get(i);
+                this.line(4, "case " + i + ":");
+                this.line(5, this.invokeMethod(type, method, "(" + this.erasure(method.getParameters().get(0).asType()) + ") event") + ";");
+                this.line(5, "break;");
+            }
+            this.line(3, "}");
+        }
+        this.line(2, "}");
+        this.line(1, "}");
+    }
+
+    /**
+     * Invokes all methods even if one fails, the first failure is thrown with the others attached as suppressed.
+     */
+    private void invokeMethods(int indentation, String type, List<ExecutableElement> methods) {
+        if (methods.size() == 1) {
+            this.line(indentation, this.invokeMethod(type, methods.get(0)) + ";");
+            return;
+        }
+        this.line(indentation, "Throwable failure = null;");
+        for (ExecutableElement method : methods) {
+            this.line(indentation, "try {");
+            this.line(indentation + 1, this.invokeMethod(type, method) + ";");
+            this.line(indentation, "} catch (Throwable throwable) {");
+            this.line(indentation + 1, "if (failure == null) failure = throwable;");
+            this.line(indentation + 1, "else failure.addSuppressed(throwable);");
+            this.line(indentation, "}");
+        }
+        this.line(indentation, "if (failure != null) throw failure;");
+    }
+
+    private void generateHandles(String type, List<VariableElement> fields, List<ExecutableElement> methods) {
+        final List<String> initializers = new ArrayList<>();
+        for (VariableElement field : fields) {
+            boolean injected = field.getAnnotation(Load.class) != null
+                    || field.getAnnotation(Fill.class) != null
+                    || field.getAnnotation(Provide.class) != null;
+            if (!injected || !field.getModifiers().contains(Modifier.PRIVATE)) continue;
+
+            String finder = field.getModifiers().contains(Modifier.STATIC) ? "findStaticVarHandle" : "findVarHandle";
+            this.line(2, "private static final java.lang.invoke.VarHandle " + this.handleName(field) + ";");
+            initializers.add(this.handleName(field) + " = lookup." + finder + "(" + type + ".class, \"" + field.getSimpleName() + "\", " + this.erasure(field.asType()) + ".class);");
+        }
+        for (ExecutableElement method : methods) {
+            boolean invoked = method.getAnnotation(Construct.class) != null
+                    || method.getAnnotation(Destroy.class) != null
+                    || method.getAnnotation(Refilled.class) != null
+                    || method.getAnnotation(Subscribe.class) != null;
+            if (!invoked || !method.getModifiers().contains(Modifier.PRIVATE)) continue;
+
+            String finder = method.getModifiers().contains(Modifier.STATIC) ? "findStatic" : "findVirtual";
+            StringBuilder methodType = new StringBuilder(this.erasure(method.getReturnType()) + ".class");
+            method.getParameters().forEach(parameter -> methodType.append(", ").append(this.erasure(parameter.asType())).append(".class"));
+            this.line(2, "private static final java.lang.invoke.MethodHandle " + this.handleName(method) + ";");
+            initializers.add(this.handleName(method) + " = lookup." + finder + "(" + type + ".class, \"" + method.getSimpleName() + "\", java.lang.invoke.MethodType.methodType(" + methodType + "));");
+        }
+        if (initializers.isEmpty()) return;
+
+        this.line(0, "");
+        this.line(2, "static {");
+        this.line(3, "try {");
+        this.line(4, "java.lang.invoke.MethodHandles.Lookup lookup = java.lang.invoke.MethodHandles.privateLookupIn(" + type + ".class, java.lang.invoke.MethodHandles.lookup());");
+        initializers.forEach(initializer -> this.line(4, initializer));
+        this.line(3, "} catch (ReflectiveOperationException exception) {");
+        this.line(4, "throw new ExceptionInInitializerError(exception);");
+        this.line(3, "}");
+        this.line(2, "}");
+    }
+
+    private void castComponent(String type, boolean used) {
+        if (used) {
+            this.line(3, type + " component = (" + type + ") instance;");
+        }
+    }
+
+    private String readField(String type, VariableElement field) {
+        boolean isStatic = field.getModifiers().contains(Modifier.STATIC);
+        if (field.getModifiers().contains(Modifier.PRIVATE)) {
+            return "(Object) " + this.handleName(field) + ".get(" + (isStatic ? "" : "component") + ")";
+        }
+        return (isStatic ? type : "component") + "." + field.getSimpleName();
+    }
+
+    private void writeField(String type, VariableElement field, String valueExpression) {
+        this.writeField(3, type, field, valueExpression);
+    }
+
+    private void writeField(int indentation, String type, VariableElement field, String valueExpression) {
+        final String fieldType = this.erasure(field.asType());
+        final boolean isStatic = field.getModifiers().contains(Modifier.STATIC);
+        final boolean isPrimitive = field.asType().getKind().isPrimitive();
+
+        this.line(indentation, "{");
+        this.line(indentation + 1, "Object value = " + valueExpression + ";");
+        final String statement;
+        if (field.getModifiers().contains(Modifier.PRIVATE)) {
+            statement = this.handleName(field) + ".set(" + (isStatic ? "" : "component, ") + "(" + fieldType + ") value);";
+        } else {
+            statement = (isStatic ? type : "component") + "." + field.getSimpleName() + " = (" + fieldType + ") value;";
+        }
+        this.line(indentation + 1, isPrimitive ? "if (value != null) " + statement : statement);
+        this.line(indentation, "}");
+    }
+
+    private String invokeMethod(String type, ExecutableElement method) {
+        return this.invokeMethod(type, method, "");
+    }
+
+    private String invokeMethod(String type, ExecutableElement method, String arguments) {
+        boolean isStatic = method.getModifiers().contains(Modifier.STATIC);
+        if (method.getModifiers().contains(Modifier.PRIVATE)) {
+            String receiver = isStatic ? "" : "component";
+            String separator = receiver.isEmpty() || arguments.isEmpty() ? "" : ", ";
+            return this.handleName(method) + ".invoke(" + receiver + separator + arguments + ")";
+        }
+        return (isStatic ? type : "component") + "." + method.getSimpleName() + "(" + arguments + ")";
+    }
+
+    /**
+     * Handles of methods with parameters carry the parameter types in their name, so overloads get handles of their own.
+     */
+    private String handleName(Element member) {
+        if (member.getKind() == ElementKind.FIELD) return "FIELD_" + member.getSimpleName();
+
+        StringBuilder name = new StringBuilder("METHOD_" + member.getSimpleName());
+        ((ExecutableElement) member).getParameters().forEach(parameter -> name.append('_').append(this.erasure(parameter.asType()).replaceAll("[^A-Za-z0-9]", "_")));
+        return name.toString();
+    }
+
+    /**
+     * @return the erased element type of a {@link java.util.List} or {@link java.util.Collection} field
+     */
+    private Optional<String> elementType(VariableElement field) {
+        final String fieldType = this.erasure(field.asType());
+        if (!fieldType.equals("java.util.List") && !fieldType.equals("java.util.Collection")) return Optional.empty();
+
+        final List<? extends TypeMirror> typeArguments = ((DeclaredType) field.asType()).getTypeArguments();
+        if (typeArguments.isEmpty()) return Optional.empty();
+        TypeMirror elementType = typeArguments.get(0);
+        if (elementType.getKind() == TypeKind.WILDCARD) {
+            elementType = ((WildcardType) elementType).getExtendsBound();
+            if (elementType == null) return Optional.of("Object");
+        }
+        return Optional.of(this.erasure(elementType));
+    }
+
+    private String erasure(TypeMirror type) {
+        return this.types.erasure(type).toString();
+    }
+
+    private void line(int indentation, String line) {
+        this.source.append("    ".repeat(indentation)).append(line).append('\n');
+    }
+}
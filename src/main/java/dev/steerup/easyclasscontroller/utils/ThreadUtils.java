@@ -0,0 +1,41 @@
+package dev.steerup.easyclasscontroller.utils;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ThreadUtils {
+
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+    /**
+     * @return an executor starting a virtual thread per task if the running JVM supports them,
+     * a cached pool of daemon threads otherwise
+     */
+    public static ExecutorService newTaskExecutor(String threadNamePrefix) {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException exception) {
+            AtomicInteger threadCount = new AtomicInteger();
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, threadNamePrefix + "-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * @return the bytes the current thread allocated so far, -1 if the JVM doesn't support measuring them
+     */
+    public static long currentThreadAllocatedBytes() {
+        if (!(THREAD_MX_BEAN instanceof com.sun.management.ThreadMXBean)) return -1;
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) THREAD_MX_BEAN;
+        if (!threadMXBean.isThreadAllocatedMemorySupported() || !threadMXBean.isThreadAllocatedMemoryEnabled()) return -1;
+        return threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
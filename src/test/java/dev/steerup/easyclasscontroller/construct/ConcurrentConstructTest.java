@@ -0,0 +1,64 @@
+package dev.steerup.easyclasscontroller.construct;
+
+import dev.steerup.easyclasscontroller.context.Context;
+import dev.steerup.easyclasscontroller.context.builder.ContextBuilder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+@Timeout(30)
+class ConcurrentConstructTest {
+
+    private static ContextBuilder wire(Optional<Context> context) throws Exception {
+        return ContextBuilder.create(ConcurrentConstructTest.class, "dev.steerup.easyclasscontroller.construct", context)
+                .initializeClasses(Optional.empty())
+                .preBuilt(preBuiltContext -> Reader.context = preBuiltContext)
+                .instantiateClasses()
+                .loadProvidedElements()
+                .setProvidedComponents()
+                .setProvidedElements();
+    }
+
+    private static <T> T readOnOtherThread(Supplier<T> lookup) throws Exception {
+        return CompletableFuture.supplyAsync(lookup).get();
+    }
+
+    @Test
+    void concurrentConstructMethodsSeeTheComponentsOfTheirBootstrap() throws Exception {
+        ContextBuilder contextBuilder = wire(Optional.empty());
+        contextBuilder.performConstructMethodsConcurrently(Optional.of(Duration.ofSeconds(10)));
+        Context context = Reader.context;
+
+        assertNull(readOnOtherThread(() -> context.getComponent(Reader.class)));
+        assertNull(readOnOtherThread(() -> context.getProvidedElement("read")));
+        assertSame(context, contextBuilder.build());
+        assertSame(context.getComponent(Settings.class), context.getComponent(Reader.class).settings);
+        assertEquals(Boolean.TRUE, context.getProvidedElement("read"));
+    }
+
+    @Test
+    void concurrentConstructMethodsShareAnOuterBatch() throws Exception {
+        Context context = new Context();
+        context.beginBatch();
+        try {
+            ContextBuilder contextBuilder = wire(Optional.of(context));
+            contextBuilder.performConstructMethodsConcurrently(Optional.empty()).publish();
+
+            assertSame(context.getComponent(Settings.class), context.getComponent(Reader.class).settings);
+            assertEquals(Boolean.TRUE, context.getProvidedElement("read"));
+            assertNull(readOnOtherThread(() -> context.getProvidedElement("read")));
+        } finally {
+            context.discardBatch();
+        }
+        assertNull(context.getComponent(Reader.class));
+        assertNull(context.getProvidedElement("read"));
+    }
+}
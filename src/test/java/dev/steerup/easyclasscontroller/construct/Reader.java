@@ -0,0 +1,19 @@
+package dev.steerup.easyclasscontroller.construct;
+
+import dev.steerup.easyclasscontroller.annotations.method.Construct;
+import dev.steerup.easyclasscontroller.annotations.type.Component;
+import dev.steerup.easyclasscontroller.context.Context;
+
+@Component
+public class Reader {
+
+    static volatile Context context;
+
+    volatile Settings settings;
+
+    @Construct
+    public void read() {
+        this.settings = context.getComponent(Settings.class);
+        context.provide("read", true);
+    }
+}
@@ -0,0 +1,7 @@
+package dev.steerup.easyclasscontroller.construct;
+
+import dev.steerup.easyclasscontroller.annotations.type.Component;
+
+@Component
+public class Settings {
+}
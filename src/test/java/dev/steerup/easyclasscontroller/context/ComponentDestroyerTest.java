@@ -0,0 +1,105 @@
+package dev.steerup.easyclasscontroller.context;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Timeout(30)
+class ComponentDestroyerTest {
+
+    static class Repository {
+    }
+
+    static class Service {
+    }
+
+    static class Controller {
+    }
+
+    static class Scheduler {
+    }
+
+    static class Clock {
+    }
+
+    private final Queue<Class<?>> destroyed = new ConcurrentLinkedQueue<>();
+
+    private ComponentDestroyer.Entry entry(Class<?> type, Class<?>... dependencies) {
+        return new ComponentDestroyer.Entry(type, new Object(), dependencies, instance -> this.destroyed.add(type));
+    }
+
+    @Test
+    void componentsAreDestroyedBeforeTheirDependencies() {
+        ComponentDestroyer.destroy(List.of(
+                this.entry(Repository.class),
+                this.entry(Service.class, Repository.class),
+                this.entry(Controller.class, Service.class)), Optional.empty());
+
+        assertEquals(List.of(Controller.class, Service.class, Repository.class), List.copyOf(this.destroyed));
+    }
+
+    @Test
+    void cyclesAreDestroyedOnceNothingOutsideDependsOnThem() {
+        ComponentDestroyer.destroy(List.of(
+                this.entry(Repository.class, Service.class, Clock.class),
+                this.entry(Service.class, Repository.class),
+                this.entry(Controller.class, Service.class),
+                this.entry(Clock.class),
+                new ComponentDestroyer.Entry(Scheduler.class, new Object(), new Class<?>[]{Controller.class}, null)), Optional.empty());
+
+        List<Class<?>> order = List.copyOf(this.destroyed);
+        assertEquals(4, order.size());
+        assertEquals(Controller.class, order.get(0));
+        assertEquals(Set.of(Repository.class, Service.class), Set.copyOf(order.subList(1, 3)));
+        assertEquals(Clock.class, order.get(3));
+    }
+
+    @Test
+    void timedOutComponentsAreInterruptedAndReleaseTheirDependenciesOnceTheyReturn() {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        Queue<String> events = new ConcurrentLinkedQueue<>();
+        ComponentDestroyer.Entry service = new ComponentDestroyer.Entry(Service.class, new Object(), new Class<?>[]{Repository.class}, instance -> {
+            try {
+                Thread.sleep(Duration.ofSeconds(20).toMillis());
+            } catch (InterruptedException exception) {
+                interrupted.countDown();
+                long end = System.nanoTime() + Duration.ofMillis(200).toNanos();
+                while (System.nanoTime() < end) {
+                    Thread.onSpinWait();
+                }
+                events.add("service returned");
+                throw new IllegalStateException("Interrupted while flushing.", exception);
+            }
+        });
+        ComponentDestroyer.Entry repository = new ComponentDestroyer.Entry(Repository.class, new Object(), new Class<?>[0], instance -> events.add("repository destroyed"));
+        ComponentDestroyer.Entry controller = new ComponentDestroyer.Entry(Controller.class, new Object(), new Class<?>[0], instance -> {
+            throw new IllegalArgumentException("Controller failed.");
+        });
+
+        InternalError error = assertThrows(InternalError.class, () -> ComponentDestroyer.destroy(List.of(service, repository, controller), Optional.of(Duration.ofMillis(100))));
+
+        assertEquals(0, interrupted.getCount());
+        assertEquals(List.of("service returned", "repository destroyed"), List.copyOf(events));
+        assertEquals(2, error.getSuppressed().length);
+        Throwable timeout = Stream.of(error.getSuppressed()).filter(failure -> failure.getMessage().startsWith("Service")).findFirst().orElseThrow();
+        assertInstanceOf(TimeoutException.class, timeout);
+        assertInstanceOf(IllegalStateException.class, timeout.getSuppressed()[0]);
+        assertTrue(Stream.of(error.getSuppressed()).anyMatch(IllegalArgumentException.class::isInstance));
+        assertEquals(Set.of("Service", "Controller"), Stream.of(error.getMessage().substring(error.getMessage().indexOf(':') + 2).split(", ")).collect(Collectors.toSet()));
+    }
+}
@@ -0,0 +1,62 @@
+package dev.steerup.easyclasscontroller.context;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class ComponentKeyTest {
+
+    interface Detached {
+    }
+
+    /**
+     * Loads a copy of {@link Detached} through a class loader which is dropped right away.
+     */
+    private static int slotOfClassLoadedFrom(Path directory) throws Exception {
+        final String resource = Detached.class.getName().replace('.', '/') + ".class";
+        final Path classFile = directory.resolve(resource);
+        Files.createDirectories(classFile.getParent());
+        try (InputStream inputStream = Detached.class.getClassLoader().getResourceAsStream(resource)) {
+            Files.copy(inputStream, classFile);
+        }
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{directory.toUri().toURL()}, null)) {
+            return ComponentKey.of(classLoader.loadClass(Detached.class.getName())).slot;
+        }
+    }
+
+    @Test
+    void slotsOfUnloadedClassesAreReused(@TempDir Path directory) throws Exception {
+        final int slot = slotOfClassLoadedFrom(directory.resolve("unloaded"));
+        for (int i = 0; i < 50; i++) {
+            System.gc();
+            Thread.sleep(10);
+            if (slotOfClassLoadedFrom(directory.resolve("reloaded" + i)) <= slot) return;
+        }
+        fail("The slot of the unloaded class was never reused.");
+    }
+
+    @Test
+    void providedNamesKeepTheirKeys() throws Exception {
+        Context context = new Context();
+        context.provide("kept", 1);
+        context.beginBatch();
+        context.provide("batched", 2);
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        assertEquals(2, (Integer) context.getProvidedElement("batched"));
+        context.commitBatch();
+        assertEquals(1, (Integer) context.getProvidedElement("kept"));
+        assertEquals(2, (Integer) context.getProvidedElement(ProvidedKey.of("batched")));
+    }
+}
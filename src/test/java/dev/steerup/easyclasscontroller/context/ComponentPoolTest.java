@@ -0,0 +1,56 @@
+package dev.steerup.easyclasscontroller.context;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Timeout(30)
+class ComponentPoolTest {
+
+    static class Connection {
+    }
+
+    @Test
+    void borrowingFromAnExhaustedPoolWaitsForARelease() throws Exception {
+        AtomicInteger created = new AtomicInteger();
+        ComponentPool<Connection> pool = new ComponentPool<>(Connection.class, 2, () -> {
+            created.incrementAndGet();
+            return new Connection();
+        });
+        Connection first = pool.borrow();
+        Connection second = pool.borrow();
+        assertNotSame(first, second);
+
+        CompletableFuture<Connection> third = CompletableFuture.supplyAsync(pool::borrow);
+        assertThrows(TimeoutException.class, () -> third.get(200, TimeUnit.MILLISECONDS));
+
+        pool.release(second);
+        assertSame(second, third.get());
+        assertEquals(2, created.get());
+    }
+
+    @Test
+    void failedCreationsLeaveRoomForNewInstances() {
+        AtomicInteger created = new AtomicInteger();
+        ComponentPool<Connection> pool = new ComponentPool<>(Connection.class, 1, () -> {
+            if (created.incrementAndGet() == 1) throw new IllegalStateException("Connection refused.");
+            return new Connection();
+        });
+        assertThrows(IllegalStateException.class, pool::borrow);
+
+        Connection connection = pool.borrow();
+        pool.release(connection);
+
+        assertSame(connection, pool.borrow());
+        assertEquals(2, created.get());
+    }
+}
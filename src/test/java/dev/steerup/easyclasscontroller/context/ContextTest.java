@@ -0,0 +1,233 @@
+package dev.steerup.easyclasscontroller.context;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ContextTest {
+
+    interface Handler {
+    }
+
+    static class FirstHandler implements Handler {
+    }
+
+    static class SecondHandler implements Handler {
+    }
+
+    interface Unregistered {
+    }
+
+    static class Node {
+
+        volatile Node other;
+    }
+
+    static class FirstNode extends Node {
+    }
+
+    static class SecondNode extends Node {
+    }
+
+    private static Context.LazyInitializer lazy(Node node, Consumer<Node> initialize, Consumer<Node> complete) {
+        return new Context.LazyInitializer() {
+            @Override
+            public Object instantiate() {
+                return node;
+            }
+
+            @Override
+            public void initialize(Object instance) {
+                initialize.accept((Node) instance);
+            }
+
+            @Override
+            public void complete(Object instance) {
+                complete.accept((Node) instance);
+            }
+        };
+    }
+
+    @Test
+    @Timeout(30)
+    void lazyComponentsProvideWhileAnotherThreadHoldsABatch() throws Exception {
+        Context context = new Context();
+        CountDownLatch batchOpen = new CountDownLatch(1);
+        context.registerLazyComponent(FirstNode.class, lazy(new FirstNode(), node -> {
+            try {
+                batchOpen.await();
+                Thread.sleep(50);
+            } catch (InterruptedException exception) {
+                throw new AssertionError(exception);
+            }
+        }, node -> context.provide("node", node)));
+
+        CompletableFuture<Object> batch = CompletableFuture.supplyAsync(() -> {
+            context.beginBatch();
+            try {
+                batchOpen.countDown();
+                return context.getComponent(FirstNode.class);
+            } finally {
+                context.commitBatch();
+            }
+        });
+        FirstNode node = context.getComponent(FirstNode.class);
+
+        assertSame(node, batch.get());
+        assertSame(node, context.getProvidedElement("node"));
+    }
+
+    @Test
+    @Timeout(30)
+    void lazyComponentsResolvingEachOtherOnTwoThreadsFailOneOfThemInsteadOfDeadlocking() throws Exception {
+        Context context = new Context();
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        Consumer<Node> awaitOtherThread = node -> {
+            try {
+                bothStarted.countDown();
+                bothStarted.await();
+            } catch (InterruptedException exception) {
+                throw new AssertionError(exception);
+            }
+        };
+        context.registerLazyComponent(FirstNode.class, lazy(new FirstNode(), awaitOtherThread.andThen(node -> node.other = context.getComponent(SecondNode.class)), node -> {
+        }));
+        context.registerLazyComponent(SecondNode.class, lazy(new SecondNode(), awaitOtherThread.andThen(node -> node.other = context.getComponent(FirstNode.class)), node -> {
+        }));
+
+        CompletableFuture<Node> first = CompletableFuture.supplyAsync(() -> context.getComponent(FirstNode.class));
+        CompletableFuture<Node> second = CompletableFuture.supplyAsync(() -> context.getComponent(SecondNode.class));
+        List<Node> nodes = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+        for (CompletableFuture<Node> future : List.of(first, second)) {
+            try {
+                nodes.add(future.get());
+            } catch (ExecutionException exception) {
+                failures.add(exception.getCause());
+            }
+        }
+
+        assertEquals(1, nodes.size());
+        assertEquals(1, failures.size());
+        assertInstanceOf(IllegalStateException.class, failures.get(0));
+        Node node = nodes.get(0);
+        assertSame(node, node.other.other);
+        assertSame(context.getComponent(FirstNode.class), context.getComponent(SecondNode.class).other);
+        assertSame(context.getComponent(SecondNode.class), context.getComponent(FirstNode.class).other);
+    }
+
+    @Test
+    void writesKeepTheCachedListsOfUntouchedTypes() {
+        Context context = new Context();
+        context.registerComponent(FirstHandler.class, new FirstHandler());
+        context.registerComponent(String.class, "component");
+        List<Handler> handlers = context.getComponents(Handler.class);
+
+        context.provide("element", 1);
+        context.registerComponent(String.class, "other component");
+        assertSame(handlers, context.getComponents(Handler.class));
+
+        context.registerComponent(SecondHandler.class, new SecondHandler());
+        List<Handler> updatedHandlers = context.getComponents(Handler.class);
+        assertNotSame(handlers, updatedHandlers);
+        assertEquals(2, updatedHandlers.size());
+    }
+
+    @Test
+    void lookingUpUnregisteredClassesCreatesNoKeys() {
+        Context context = new Context();
+        context.registerComponent(FirstHandler.class, new FirstHandler());
+
+        assertNull(context.getComponent(Unregistered.class));
+        assertNull(ComponentKey.find(Unregistered.class));
+        assertNull(context.getProvidedElement(ProvidedKey.of("unregistered")));
+
+        context.registerComponent(SecondHandler.class, new SecondHandler());
+        assertNotNull(context.getComponent(ComponentKey.of(FirstHandler.class)));
+        assertNotNull(context.getComponent(ComponentKey.of(SecondHandler.class)));
+    }
+
+    @Test
+    void listsCachedInADiscardedBatchAreNotUsed() {
+        Context context = new Context();
+        FirstHandler firstHandler = new FirstHandler();
+        context.registerComponent(FirstHandler.class, firstHandler);
+        context.getComponent(FirstHandler.class);
+
+        context.beginBatch();
+        context.registerComponent(SecondHandler.class, new SecondHandler());
+        assertEquals(2, context.getComponents(Handler.class).size());
+        context.discardBatch();
+
+        context.provide("element", 1);
+        assertEquals(List.of(firstHandler), context.getComponents(Handler.class));
+        assertNull(context.getComponent(SecondHandler.class));
+        assertSame(firstHandler, context.getComponent(ComponentKey.of(FirstHandler.class)));
+
+        context.registerComponent(SecondHandler.class, new SecondHandler());
+        assertEquals(2, context.getComponents(Handler.class).size());
+        assertNotNull(context.getComponent(ComponentKey.of(SecondHandler.class)));
+    }
+
+    @Test
+    void peekingCreatesNothing() {
+        Context context = new Context();
+        List<Node> created = new ArrayList<>();
+        FirstHandler handler = new FirstHandler();
+        context.registerComponent(FirstHandler.class, handler);
+        context.registerLazyComponent(FirstNode.class, lazy(new FirstNode(), created::add, node -> {
+        }));
+        context.registerPrototypeComponent(SecondNode.class, lazy(new SecondNode(), created::add, node -> {
+        }));
+
+        assertSame(handler, context.peekComponent(FirstHandler.class));
+        assertNull(context.peekComponent(FirstNode.class));
+        assertNull(context.peekComponent(SecondNode.class));
+        assertEquals(List.of(), created);
+
+        FirstNode node = context.getComponent(FirstNode.class);
+        assertSame(node, context.peekComponent(FirstNode.class));
+        assertEquals(List.of(node), created);
+    }
+
+    @Test
+    void discardingANestedBatchDropsOnlyItsWrites() throws Exception {
+        Context context = new Context();
+        context.beginBatch();
+        context.provide("outer", 1);
+
+        context.beginBatch();
+        context.provide("discarded", 2);
+        context.registerComponent(SecondHandler.class, new SecondHandler());
+        assertEquals(Set.of("outer", "discarded"), context.getProvidedNamesOfBatch());
+        context.discardBatch();
+
+        context.beginBatch();
+        context.registerComponent(FirstHandler.class, new FirstHandler());
+        context.commitBatch();
+
+        assertEquals(Set.of("outer"), context.getProvidedNamesOfBatch());
+        assertNull(CompletableFuture.supplyAsync(() -> context.getProvidedElement("outer")).get());
+        context.commitBatch();
+
+        assertEquals(1, (int) context.getProvidedElement("outer"));
+        assertNull(context.getProvidedElement("discarded"));
+        assertNull(context.getComponent(SecondHandler.class));
+        assertNotNull(context.getComponent(FirstHandler.class));
+        assertEquals(1, context.getComponents(Handler.class).size());
+    }
+}
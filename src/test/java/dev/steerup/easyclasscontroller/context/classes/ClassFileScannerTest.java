@@ -0,0 +1,209 @@
+package dev.steerup.easyclasscontroller.context.classes;
+
+import dev.steerup.easyclasscontroller.annotations.type.Component;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClassFileScannerTest {
+
+    private static final String COMPONENT = "Ldev/steerup/easyclasscontroller/annotations/type/Component;";
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @interface Described {
+
+        String text();
+
+        long[] numbers();
+
+        Class<?> type();
+
+        Component.Scope scope();
+
+        Target target();
+    }
+
+    @Described(text = "text", numbers = {1, 2}, type = String.class, scope = Component.Scope.POOLED, target = @Target(ElementType.TYPE))
+    @Component(lazy = true, scope = Component.Scope.PROTOTYPE, poolSize = 2)
+    static class DescribedComponent {
+
+        static class Nested {
+        }
+
+        class Inner {
+        }
+    }
+
+    @Described(text = "text", numbers = {}, type = Component.class, scope = Component.Scope.SINGLETON, target = @Target(ElementType.TYPE))
+    static class DescribedOnly {
+
+        private Component component;
+    }
+
+    @Component
+    static class Constants {
+
+        private final long number = System.nanoTime() + 1234567890123L;
+        private final double fraction = 0.5 * System.nanoTime();
+        private final float ratio = 1.5f * System.nanoTime();
+        private final int count = 1234567 + (int) System.nanoTime();
+
+        LongSupplier supplier() {
+            return () -> this.number + (long) this.fraction + (long) this.ratio + this.count;
+        }
+    }
+
+    @Test
+    void findsComponentAfterAnnotationsWithEveryKindOfElementValue() throws IOException {
+        assertTrue(ClassFileScanner.isComponent(TestJars.bytes(DescribedComponent.class)));
+        assertFalse(ClassFileScanner.isComponent(TestJars.bytes(DescribedOnly.class)));
+    }
+
+    @Test
+    void judgesNestedClassesOnTheirOwn() throws IOException {
+        assertFalse(ClassFileScanner.isComponent(TestJars.bytes(DescribedComponent.Nested.class)));
+        assertFalse(ClassFileScanner.isComponent(TestJars.bytes(DescribedComponent.Inner.class)));
+        assertFalse(ClassFileScanner.isComponent(TestJars.bytes(ClassFileScannerTest.class)));
+    }
+
+    @Test
+    void skipsWideAndDynamicConstants() throws IOException {
+        assertTrue(ClassFileScanner.isComponent(TestJars.bytes(Constants.class)));
+    }
+
+    @Test
+    void readsEveryConstantPoolTag() throws IOException {
+        assertTrue(ClassFileScanner.isComponent(classFile(COMPONENT, 1)));
+        assertFalse(ClassFileScanner.isComponent(classFile("Ldev/steerup/Other;", 1)));
+    }
+
+    @Test
+    void rejectsBytesItCantParse() throws IOException {
+        final byte[] classFile = classFile(COMPONENT, 1);
+
+        assertThrows(IOException.class, () -> ClassFileScanner.isComponent(classFile(COMPONENT, 2)));
+        assertThrows(IOException.class, () -> ClassFileScanner.isComponent(Arrays.copyOf(classFile, classFile.length - 8)));
+        assertThrows(IOException.class, () -> ClassFileScanner.isComponent(Arrays.copyOfRange(classFile, 4, classFile.length)));
+    }
+
+    /**
+     * Writes a class using every constant pool tag, annotated with an annotation holding every kind of element value
+     * followed by an annotation of the given descriptor.
+     *
+     * @param utf8Tag the tag of the first constant, anything but 1 is invalid
+     */
+    private static byte[] classFile(String annotationDescriptor, int utf8Tag) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream classFile = new DataOutputStream(bytes);
+        classFile.writeInt(0xCAFEBABE);
+        classFile.writeShort(0);
+        classFile.writeShort(55);
+
+        classFile.writeShort(26);
+        classFile.writeByte(utf8Tag);
+        classFile.writeUTF("Generated");
+        classFile.writeByte(7);
+        classFile.writeShort(1);
+        classFile.writeByte(1);
+        classFile.writeUTF("java/lang/Object");
+        classFile.writeByte(7);
+        classFile.writeShort(3);
+        classFile.writeByte(3);
+        classFile.writeInt(42);
+        classFile.writeByte(4);
+        classFile.writeFloat(4.2f);
+        classFile.writeByte(5);
+        classFile.writeLong(42L);
+        classFile.writeByte(6);
+        classFile.writeDouble(4.2);
+        classFile.writeByte(8);
+        classFile.writeShort(1);
+        classFile.writeByte(12);
+        classFile.writeShort(1);
+        classFile.writeShort(1);
+        for (int tag = 9; tag <= 11; tag++) {
+            classFile.writeByte(tag);
+            classFile.writeShort(2);
+            classFile.writeShort(12);
+        }
+        classFile.writeByte(15);
+        classFile.writeByte(6);
+        classFile.writeShort(14);
+        classFile.writeByte(16);
+        classFile.writeShort(1);
+        for (int tag = 17; tag <= 18; tag++) {
+            classFile.writeByte(tag);
+            classFile.writeShort(0);
+            classFile.writeShort(12);
+        }
+        for (int tag = 19; tag <= 20; tag++) {
+            classFile.writeByte(tag);
+            classFile.writeShort(1);
+        }
+        classFile.writeByte(1);
+        classFile.writeUTF("RuntimeVisibleAnnotations");
+        classFile.writeByte(1);
+        classFile.writeUTF(annotationDescriptor);
+        classFile.writeByte(1);
+        classFile.writeUTF("Ldev/steerup/Described;");
+        classFile.writeByte(1);
+        classFile.writeUTF("value");
+
+        classFile.writeShort(0x0021);
+        classFile.writeShort(2);
+        classFile.writeShort(4);
+        classFile.writeShort(0);
+        classFile.writeShort(0);
+        classFile.writeShort(0);
+
+        final ByteArrayOutputStream annotationBytes = new ByteArrayOutputStream();
+        final DataOutputStream annotations = new DataOutputStream(annotationBytes);
+        annotations.writeShort(2);
+        annotations.writeShort(24);
+        annotations.writeShort(5);
+        annotations.writeShort(25);
+        annotations.writeByte('I');
+        annotations.writeShort(5);
+        annotations.writeShort(25);
+        annotations.writeByte('e');
+        annotations.writeShort(24);
+        annotations.writeShort(25);
+        annotations.writeShort(25);
+        annotations.writeByte('c');
+        annotations.writeShort(3);
+        annotations.writeShort(25);
+        annotations.writeByte('@');
+        annotations.writeShort(24);
+        annotations.writeShort(1);
+        annotations.writeShort(25);
+        annotations.writeByte('s');
+        annotations.writeShort(1);
+        annotations.writeShort(25);
+        annotations.writeByte('[');
+        annotations.writeShort(2);
+        annotations.writeByte('J');
+        annotations.writeShort(7);
+        annotations.writeByte('D');
+        annotations.writeShort(9);
+        annotations.writeShort(23);
+        annotations.writeShort(0);
+
+        classFile.writeShort(1);
+        classFile.writeShort(22);
+        classFile.writeInt(annotationBytes.size());
+        classFile.write(annotationBytes.toByteArray());
+        return bytes.toByteArray();
+    }
+}
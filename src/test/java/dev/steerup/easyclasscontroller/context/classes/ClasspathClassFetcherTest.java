@@ -0,0 +1,24 @@
+package dev.steerup.easyclasscontroller.context.classes;
+
+import dev.steerup.easyclasscontroller.context.metrics.BootstrapListener;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.ref.WeakReference;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ClasspathClassFetcherTest {
+
+    @Test
+    void loadsOnlyIndexedClassesWithinThePackage(@TempDir Path root) throws Exception {
+        IndexClassFetcherTest.writeIndex(root, WeakReference.class.getName(), "java.lang.reflect.Method");
+        final List<Class<?>> classes = new ArrayList<>();
+
+        ClasspathClassFetcher.fetch(List.of(root), ClassLoader.getSystemClassLoader(), "java.lang.ref", classes::addAll, BootstrapListener.NONE);
+        assertEquals(List.of(WeakReference.class), classes);
+    }
+}
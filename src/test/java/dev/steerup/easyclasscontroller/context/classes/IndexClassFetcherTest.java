@@ -0,0 +1,47 @@
+package dev.steerup.easyclasscontroller.context.classes;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IndexClassFetcherTest {
+
+    /**
+     * Copies a class without dependencies into the directory, so the class loaded from there has it as code source.
+     */
+    static Class<?> baseClassIn(Path directory) throws Exception {
+        final String resource = ScanMode.class.getName().replace('.', '/') + ".class";
+        final Path classFile = directory.resolve(resource);
+        Files.createDirectories(classFile.getParent());
+        try (InputStream inputStream = ScanMode.class.getClassLoader().getResourceAsStream(resource)) {
+            Files.copy(inputStream, classFile);
+        }
+        return new URLClassLoader(new URL[]{directory.toUri().toURL()}, null).loadClass(ScanMode.class.getName());
+    }
+
+    static void writeIndex(Path directory, String... classNames) throws Exception {
+        final Path index = directory.resolve(IndexClassFetcher.INDEX_LOCATION);
+        Files.createDirectories(index.getParent());
+        Files.write(index, List.of(classNames));
+    }
+
+    @Test
+    void loadsOnlyIndexedClassesWithinThePackage(@TempDir Path directory) throws Exception {
+        writeIndex(directory, WeakReference.class.getName(), "java.lang.reflect.Method");
+        final List<Class<?>> classes = new ArrayList<>();
+
+        assertTrue(IndexClassFetcher.fetch(baseClassIn(directory), "java.lang.ref", classes::addAll));
+        assertEquals(List.of(WeakReference.class), classes);
+    }
+}
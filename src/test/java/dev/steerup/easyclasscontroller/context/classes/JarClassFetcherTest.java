@@ -0,0 +1,66 @@
+package dev.steerup.easyclasscontroller.context.classes;
+
+import dev.steerup.easyclasscontroller.construct.Reader;
+import dev.steerup.easyclasscontroller.construct.Settings;
+import dev.steerup.easyclasscontroller.context.metrics.BootstrapReport;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JarClassFetcherTest {
+
+    private static final String CONSTRUCT = "dev.steerup.easyclasscontroller.construct";
+
+    @Test
+    void readsJarsTheMappedScannerRejectsEntryByEntry(@TempDir Path directory) throws Exception {
+        final byte[] jar = Files.readAllBytes(TestJars.jar(directory.resolve("components.jar"), Settings.class, Reader.class));
+        final byte[] launchScript = "#!/bin/sh\nexec java -jar \"$0\" \"$@\"\n".getBytes();
+        final byte[] executableJar = new byte[launchScript.length + jar.length];
+        System.arraycopy(launchScript, 0, executableJar, 0, launchScript.length);
+        System.arraycopy(jar, 0, executableJar, launchScript.length, jar.length);
+        final Path executable = Files.write(directory.resolve("executable.jar"), executableJar);
+        final BootstrapReport report = new BootstrapReport();
+        final List<Class<?>> classes = new ArrayList<>();
+
+        final Thread thread = Thread.currentThread();
+        final ClassLoader contextClassLoader = thread.getContextClassLoader();
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{executable.toUri().toURL()}, null)) {
+            thread.setContextClassLoader(classLoader);
+            assertTrue(JarClassFetcher.fetch(classLoader.loadClass(Settings.class.getName()), CONSTRUCT, classes::addAll, report, Optional.empty()));
+        } finally {
+            thread.setContextClassLoader(contextClassLoader);
+        }
+
+        assertEquals(1, report.getScanFailures().size());
+        assertEquals(List.of(Settings.class.getName(), Reader.class.getName()), classes.stream().map(Class::getName).collect(Collectors.toList()));
+        assertEquals(2, report.getScannedClasses());
+    }
+
+    @Test
+    void failsInsteadOfWalkingTheSourcesIfTheJarCantBeRead(@TempDir Path directory) throws Exception {
+        final Path jar = TestJars.jar(directory.resolve("components.jar"), Settings.class);
+        final Class<?> baseClass;
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{jar.toUri().toURL()}, null)) {
+            baseClass = classLoader.loadClass(Settings.class.getName());
+        }
+        Files.write(jar, new byte[64]);
+        final BootstrapReport report = new BootstrapReport();
+
+        assertThrows(IOException.class, () -> JarClassFetcher.fetch(baseClass, CONSTRUCT, classes -> {
+        }, report, Optional.empty()));
+        assertEquals(1, report.getScanFailures().size());
+    }
+}
@@ -0,0 +1,86 @@
+package dev.steerup.easyclasscontroller.context.classes;
+
+import dev.steerup.easyclasscontroller.construct.Reader;
+import dev.steerup.easyclasscontroller.construct.Settings;
+import dev.steerup.easyclasscontroller.load.Missing;
+import dev.steerup.easyclasscontroller.load.Printer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MappedJarTest {
+
+    private static final String CONSTRUCT = "dev/steerup/easyclasscontroller/construct/";
+
+    @Test
+    void findsTheComponentsOfAPackage(@TempDir Path directory) throws IOException {
+        final Path jar = TestJars.jar(directory.resolve("components.jar"), Settings.class, Printer.class, Missing.class, Reader.class);
+
+        try (MappedJar mappedJar = MappedJar.open(jar)) {
+            assertEquals(List.of(Settings.class.getName(), Reader.class.getName()), mappedJar.findComponents(CONSTRUCT));
+            assertEquals(2, mappedJar.getScannedClasses());
+            assertEquals(List.of(Settings.class.getName(), Printer.class.getName(), Reader.class.getName()), mappedJar.findComponents(""));
+            assertEquals(4, mappedJar.getScannedClasses());
+        }
+    }
+
+    @Test
+    void findsComponentsBelowClassRoots(@TempDir Path directory) throws IOException {
+        final Path jar = TestJars.jar(directory.resolve("boot.jar"), "BOOT-INF/classes/", Settings.class, Missing.class);
+
+        try (MappedJar mappedJar = MappedJar.open(jar)) {
+            assertEquals(List.of(), mappedJar.findComponents(CONSTRUCT));
+            assertEquals(List.of(Settings.class.getName()), mappedJar.findComponents(List.of("", "BOOT-INF/classes/"), CONSTRUCT));
+        }
+    }
+
+    @Test
+    void readsStoredAndDeflatedNestedJars(@TempDir Path directory) throws IOException {
+        final Map<String, byte[]> entries = new LinkedHashMap<>(TestJars.entries("BOOT-INF/classes/", Printer.class));
+        entries.put("BOOT-INF/lib/stored.jar", Files.readAllBytes(TestJars.zip(directory.resolve("stored.jar"), TestJars.entries("", Settings.class), name -> true)));
+        entries.put("BOOT-INF/lib/deflated.jar", Files.readAllBytes(TestJars.jar(directory.resolve("deflated.jar"), Reader.class)));
+        final Path jar = TestJars.zip(directory.resolve("fat.jar"), entries, name -> name.endsWith("stored.jar"));
+
+        try (MappedJar mappedJar = MappedJar.open(jar)) {
+            final List<MappedJar> nestedJars = mappedJar.findNestedJars();
+            assertEquals(2, nestedJars.size());
+            assertEquals(List.of(Settings.class.getName()), nestedJars.get(0).findComponents(CONSTRUCT));
+            assertEquals(List.of(Reader.class.getName()), nestedJars.get(1).findComponents(CONSTRUCT));
+        }
+    }
+
+    @Test
+    void readsZip64Archives(@TempDir Path directory) throws IOException {
+        final Map<String, byte[]> entries = new LinkedHashMap<>();
+        for (int i = 0; i < 0x10000; i++) {
+            entries.put("filler/" + i, new byte[0]);
+        }
+        entries.putAll(TestJars.entries("", Settings.class, Missing.class));
+        final Path jar = TestJars.zip(directory.resolve("zip64.jar"), entries, name -> true);
+
+        try (MappedJar mappedJar = MappedJar.open(jar)) {
+            assertEquals(List.of(Settings.class.getName()), mappedJar.findComponents(CONSTRUCT));
+        }
+    }
+
+    @Test
+    void rejectsArchivesItCantRead(@TempDir Path directory) throws IOException {
+        final byte[] jar = Files.readAllBytes(TestJars.jar(directory.resolve("components.jar"), Settings.class));
+        final byte[] launchScript = "#!/bin/sh\nexec java -jar \"$0\" \"$@\"\n".getBytes();
+        final byte[] executableJar = new byte[launchScript.length + jar.length];
+        System.arraycopy(launchScript, 0, executableJar, 0, launchScript.length);
+        System.arraycopy(jar, 0, executableJar, launchScript.length, jar.length);
+
+        assertThrows(IOException.class, () -> MappedJar.open(Files.write(directory.resolve("executable.jar"), executableJar)));
+        assertThrows(IOException.class, () -> MappedJar.open(Files.write(directory.resolve("text.jar"), launchScript)));
+    }
+}
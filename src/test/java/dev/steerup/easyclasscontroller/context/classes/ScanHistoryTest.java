@@ -0,0 +1,41 @@
+package dev.steerup.easyclasscontroller.context.classes;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ScanHistoryTest {
+
+    private static final String LOCATION = "file:/classes/";
+
+    @Test
+    void findsPackagesBelowAScannedOne() {
+        ScanHistory scanHistory = new ScanHistory();
+        ClassLoader classLoader = ScanHistoryTest.class.getClassLoader();
+        scanHistory.record(LOCATION, classLoader, "dev.steerup.easyclasscontroller.context", List.of(ScanHistory.class, ClassFetcher.class, ScanHistoryTest.class));
+
+        assertEquals(Optional.of(List.of(ScanHistory.class, ClassFetcher.class, ScanHistoryTest.class)), scanHistory.find(LOCATION, classLoader, "dev.steerup.easyclasscontroller.context.classes"));
+    }
+
+    @Test
+    void doesNotTreatSiblingPackagesSharingAPrefixAsScanned() {
+        ScanHistory scanHistory = new ScanHistory();
+        ClassLoader classLoader = ScanHistoryTest.class.getClassLoader();
+        scanHistory.record(LOCATION, classLoader, "dev.steerup.easyclasscontroller.context.class", List.of());
+
+        assertEquals(Optional.empty(), scanHistory.find(LOCATION, classLoader, "dev.steerup.easyclasscontroller.context.classes"));
+    }
+
+    @Test
+    void findsOnlyClassesOfTheRequestedPackage() {
+        ScanHistory scanHistory = new ScanHistory();
+        ClassLoader classLoader = ScanHistoryTest.class.getClassLoader();
+        scanHistory.record(LOCATION, classLoader, "", List.of(String.class, ScanHistory.class));
+
+        assertEquals(Optional.of(List.of(String.class)), scanHistory.find(LOCATION, classLoader, "java.lang"));
+        assertEquals(Optional.of(List.of()), scanHistory.find(LOCATION, classLoader, "java.lan"));
+    }
+}
@@ -0,0 +1,35 @@
+package dev.steerup.easyclasscontroller.context.classes;
+
+import dev.steerup.easyclasscontroller.construct.Reader;
+import dev.steerup.easyclasscontroller.construct.Settings;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SourceClassFetcherTest {
+
+    @Test
+    void walksPackagesInsideAJar(@TempDir Path directory) throws Exception {
+        final Path jar = TestJars.jar(directory.resolve("components.jar"), Settings.class, Reader.class);
+        final List<Class<?>> classes = new ArrayList<>();
+
+        final Thread thread = Thread.currentThread();
+        final ClassLoader contextClassLoader = thread.getContextClassLoader();
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{jar.toUri().toURL()}, null)) {
+            thread.setContextClassLoader(classLoader);
+            SourceClassFetcher.fetch("dev.steerup.easyclasscontroller.construct", classes::addAll);
+        } finally {
+            thread.setContextClassLoader(contextClassLoader);
+        }
+
+        assertEquals(List.of(Reader.class.getName(), Settings.class.getName()), classes.stream().map(Class::getName).collect(Collectors.toList()));
+    }
+}
@@ -0,0 +1,85 @@
+package dev.steerup.easyclasscontroller.context.classes;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+
+/**
+ * Writes jars like maven does, with an entry for every directory.
+ */
+class TestJars {
+
+    static Path jar(Path file, Class<?>... classes) throws IOException {
+        return jar(file, "", classes);
+    }
+
+    /**
+     * @param classRoot the directory the classes are stored relative to, e.g. {@code BOOT-INF/classes/}
+     */
+    static Path jar(Path file, String classRoot, Class<?>... classes) throws IOException {
+        return zip(file, entries(classRoot, classes), name -> false);
+    }
+
+    static Map<String, byte[]> entries(String classRoot, Class<?>... classes) throws IOException {
+        final Map<String, byte[]> entries = new LinkedHashMap<>();
+        for (Class<?> clazz : classes) {
+            entries.put(classRoot + resource(clazz), bytes(clazz));
+        }
+        return entries;
+    }
+
+    /**
+     * @param stored whether an entry is stored instead of deflated
+     */
+    static Path zip(Path file, Map<String, byte[]> entries, Predicate<String> stored) throws IOException {
+        final Set<String> directories = new LinkedHashSet<>();
+        for (String name : entries.keySet()) {
+            for (int index = name.indexOf('/'); index != -1; index = name.indexOf('/', index + 1)) {
+                directories.add(name.substring(0, index + 1));
+            }
+        }
+
+        try (OutputStream outputStream = Files.newOutputStream(file); JarOutputStream jar = new JarOutputStream(outputStream)) {
+            for (String directory : directories) {
+                jar.putNextEntry(new JarEntry(directory));
+                jar.closeEntry();
+            }
+            for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                final JarEntry jarEntry = new JarEntry(entry.getKey());
+                if (stored.test(entry.getKey())) {
+                    final CRC32 crc = new CRC32();
+                    crc.update(entry.getValue());
+                    jarEntry.setMethod(ZipEntry.STORED);
+                    jarEntry.setSize(entry.getValue().length);
+                    jarEntry.setCompressedSize(entry.getValue().length);
+                    jarEntry.setCrc(crc.getValue());
+                }
+                jar.putNextEntry(jarEntry);
+                jar.write(entry.getValue());
+                jar.closeEntry();
+            }
+        }
+        return file;
+    }
+
+    static byte[] bytes(Class<?> clazz) throws IOException {
+        try (InputStream inputStream = clazz.getClassLoader().getResourceAsStream(resource(clazz))) {
+            return inputStream.readAllBytes();
+        }
+    }
+
+    private static String resource(Class<?> clazz) {
+        return clazz.getName().replace('.', '/') + ".class";
+    }
+}
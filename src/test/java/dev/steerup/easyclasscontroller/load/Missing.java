@@ -0,0 +1,4 @@
+package dev.steerup.easyclasscontroller.load;
+
+public interface Missing {
+}
@@ -0,0 +1,11 @@
+package dev.steerup.easyclasscontroller.load;
+
+import dev.steerup.easyclasscontroller.annotations.field.Load;
+import dev.steerup.easyclasscontroller.annotations.type.Component;
+
+@Component
+public class Printer {
+
+    @Load
+    public Missing missing;
+}
@@ -0,0 +1,32 @@
+package dev.steerup.easyclasscontroller.load;
+
+import dev.steerup.easyclasscontroller.context.Context;
+import dev.steerup.easyclasscontroller.context.builder.ContextBuilder;
+import dev.steerup.easyclasscontroller.context.metrics.BootstrapReport;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class UnloadedComponentTest {
+
+    @Test
+    void fieldsMatchingNoComponentAreReportedToTheListener() throws Exception {
+        BootstrapReport report = new BootstrapReport();
+        Context context = ContextBuilder.create(UnloadedComponentTest.class, "dev.steerup.easyclasscontroller.load", Optional.empty())
+                .listener(report)
+                .initializeClasses(Optional.empty())
+                .instantiateClasses()
+                .loadProvidedElements()
+                .setProvidedComponents()
+                .setProvidedElements()
+                .performConstructMethods()
+                .build();
+
+        assertNull(context.getComponent(Printer.class).missing);
+        assertEquals(List.of(Printer.class.getName() + "(Loads: " + Missing.class.getName() + ")"), report.getUnloadedComponents());
+    }
+}